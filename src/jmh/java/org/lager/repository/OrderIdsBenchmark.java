@@ -0,0 +1,53 @@
+package org.lager.repository;
+
+import org.lager.BenchmarkApplication;
+import org.lager.model.Order;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /order listing all IDs: the scalar projection against loading every Order with its EAGER items;
+// run with -prof gc for the bytes allocated per listing
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class OrderIdsBenchmark {
+
+    @Param({"1000000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository repository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        repository = context.getBean(OrderRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO ORDERS (ORDER_ID, CUSTOMER_ID) SELECT X, 100000000 FROM SYSTEM_RANGE(1, ?)", rows);
+        jdbcTemplate.update("INSERT INTO ORDER_ITEMS (ORDER_ID, PRODUCT_ID, AMOUNT) SELECT X, 100000000, 1 FROM SYSTEM_RANGE(1, ?)", rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> projection() {
+        return repository.getAllIds();
+    }
+
+    @Benchmark
+    public List<Long> entities() {
+        return repository.findAll().stream()
+                .map(Order::getOrderId)
+                .toList();
+    }
+}
@@ -0,0 +1,59 @@
+package org.lager.security;
+
+import jakarta.servlet.FilterChain;
+import org.lager.cache.BoundedCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// an authenticated request through JwtTokenFilter; "verify" lets every token miss the cache, so each request
+// verifies the signature and parses the claims once
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenFilterBenchmark {
+
+    @Param({"cache", "verify"})
+    String path;
+
+    private JwtTokenFilter filter;
+    private MockHttpServletRequest[] requests;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        JwtKeyRing keyRing = new JwtKeyRing(new JdbcTemplate(), Duration.ofDays(1), Duration.ofMinutes(1));
+        keyRing.load(List.of(JwtKey.generate(now)), now);
+        int cacheSize = path.equals("cache") ? 10_000 : 1;
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(new TokenRevocations(new JdbcTemplate()),
+                new BoundedCache<>(cacheSize, JwtTokenProvider.VALID_DURATION), keyRing);
+        filter = new JwtTokenFilter(tokenProvider);
+        requests = new MockHttpServletRequest[2];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new MockHttpServletRequest("GET", "/basket/100000000");
+            requests[i].addHeader("Authorization", "Bearer " + tokenProvider.generateToken("user" + i,
+                    AuthorityUtils.createAuthorityList("ROLE_USER")));
+        }
+    }
+
+    @Benchmark
+    public void filter(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = requests[next++ & 1];
+        FilterChain chain = (req, res) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        filter.doFilter(request, response, chain);
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,67 @@
+package org.lager.service;
+
+import org.lager.BenchmarkApplication;
+import org.lager.model.BasketItem;
+import org.lager.model.dto.BasketDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// a basket of 1, 50 or 500 items stored as BASKET_ITEMS rows or as one ITEMS document in its BASKETS row;
+// "rows" reads items through the second-level cache, as in production
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BasketLayoutBenchmark {
+
+    @Param({"rows", "document"})
+    String storage;
+
+    @Param({"1", "50", "500"})
+    int items;
+
+    private ConfigurableApplicationContext context;
+    private BasketService service;
+    private long customerId;
+    private long productId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("basket.storage=" + storage);
+        service = context.getBean(BasketService.class);
+        ProductService productService = context.getBean(ProductService.class);
+        customerId = context.getBean(CustomerService.class).create("Customer").customerId();
+        for (int i = 0; i < items; i++) {
+            long added = productService.create("Product " + i).productId();
+            service.addToBasket(customerId, added, 1);
+            if (i == 0)
+                productId = added;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BasketDto read() {
+        return service.get(customerId);
+    }
+
+    @Benchmark
+    public BasketItem addItem() {
+        return service.addToBasket(customerId, productId, 1);
+    }
+
+    // the whole basket is saved, as on every removal
+    @Benchmark
+    public BasketItem removeItem() {
+        service.removeFromBasket(customerId, productId);
+        return service.addToBasket(customerId, productId, 1);
+    }
+}
@@ -0,0 +1,43 @@
+package org.lager.service;
+
+import org.lager.BenchmarkApplication;
+import org.lager.model.dto.CustomerDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// inserting Customers with IDs taken from the sequence one by one ("per-row") or in pooled-lo blocks ("pooled");
+// H2 runs in process, so the saved round-trip is cheaper here than over a network to Postgres
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerInsertBenchmark {
+
+    @Param({"per-row", "pooled"})
+    String ids;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService service;
+
+    @Setup
+    public void setUp() {
+        context = ids.equals("per-row")
+                ? BenchmarkApplication.start("spring.flyway.locations=classpath:db/migration,classpath:db/per-row-ids")
+                : BenchmarkApplication.start();
+        service = context.getBean(CustomerService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerDto create() {
+        return service.create("Customer");
+    }
+}
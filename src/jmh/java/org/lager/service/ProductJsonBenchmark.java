@@ -0,0 +1,50 @@
+package org.lager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.lager.BenchmarkApplication;
+import org.lager.model.dto.ProductDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// the body of GET /product/{id}: rendered by Jackson from the cached ProductDto on every request, as before,
+// or taken from the cache of rendered JSON
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ProductService service;
+    private ObjectWriter writer;
+    private long productId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        service = context.getBean(ProductService.class);
+        writer = context.getBean(ObjectMapper.class).writerFor(ProductDto.class);
+        productId = service.create("Product").productId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] rendered() throws JsonProcessingException {
+        return writer.writeValueAsBytes(service.get(productId));
+    }
+
+    @Benchmark
+    public byte[] cached() {
+        return service.getJson(productId).body();
+    }
+}
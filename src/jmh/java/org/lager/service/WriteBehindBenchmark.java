@@ -0,0 +1,52 @@
+package org.lager.service;
+
+import org.lager.BenchmarkApplication;
+import org.lager.model.BasketItem;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// a customer clicking +1 ten times, each click loading and saving the basket or editing it in memory;
+// with write-behind the scheduled group flush runs alongside
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBehindBenchmark {
+
+    private static final int CLICKS = 10;
+
+    @Param({"false", "true"})
+    String writeBehind;
+
+    private ConfigurableApplicationContext context;
+    private BasketService service;
+    private long customerId;
+    private long productId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("basket.write-behind.enabled=" + writeBehind);
+        service = context.getBean(BasketService.class);
+        customerId = context.getBean(CustomerService.class).create("Customer").customerId();
+        productId = context.getBean(ProductService.class).create("Product").productId();
+        service.addToBasket(customerId, productId, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLICKS)
+    public BasketItem clicks() {
+        BasketItem item = null;
+        for (int i = 0; i < CLICKS; i++)
+            item = service.addToBasket(customerId, productId, 1);
+        return item;
+    }
+}
@@ -0,0 +1,4 @@
+-- the allocation before pooled-lo blocks: Hibernate fixes its allocation size to the increment, one round-trip per row
+ALTER SEQUENCE PRODUCT_KEY INCREMENT BY 1;
+ALTER SEQUENCE CUSTOMER_KEY INCREMENT BY 1;
+ALTER SEQUENCE BASKET_KEY INCREMENT BY 1;
@@ -0,0 +1,64 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.lager.model.BasketItem;
+import org.lager.repository.BasketItemsCodec;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// concurrent first additions could create two baskets for one customer; the oldest one keeps the items of all,
+// as rows and, for document baskets (basket.storage=document), in its document
+public class V12__one_basket_per_customer extends BaseJavaMigration {
+    private static final String MERGE_AMOUNTS = """
+            UPDATE BASKET_ITEMS SET AMOUNT = AMOUNT + (
+                SELECT COALESCE(SUM(d.AMOUNT), 0) FROM BASKET_ITEMS d JOIN BASKETS db ON db.BASKET_ID = d.BASKET_ID
+                WHERE d.PRODUCT_ID = BASKET_ITEMS.PRODUCT_ID AND d.BASKET_ID <> BASKET_ITEMS.BASKET_ID
+                  AND db.CUSTOMER_ID = (SELECT CUSTOMER_ID FROM BASKETS WHERE BASKET_ID = BASKET_ITEMS.BASKET_ID))
+            WHERE BASKET_ID IN (SELECT MIN(BASKET_ID) FROM BASKETS GROUP BY CUSTOMER_ID HAVING COUNT(*) > 1)""";
+    private static final String MOVE_ITEMS = """
+            INSERT INTO BASKET_ITEMS (BASKET_ID, MAP_KEY, PRODUCT_ID, AMOUNT)
+            SELECT k.KEPT_ID, d.PRODUCT_ID, d.PRODUCT_ID, SUM(d.AMOUNT)
+            FROM BASKET_ITEMS d
+                JOIN BASKETS db ON db.BASKET_ID = d.BASKET_ID
+                JOIN (SELECT CUSTOMER_ID, MIN(BASKET_ID) AS KEPT_ID FROM BASKETS GROUP BY CUSTOMER_ID) k ON k.CUSTOMER_ID = db.CUSTOMER_ID
+            WHERE d.BASKET_ID <> k.KEPT_ID
+              AND NOT EXISTS (SELECT 1 FROM BASKET_ITEMS e WHERE e.BASKET_ID = k.KEPT_ID AND e.PRODUCT_ID = d.PRODUCT_ID)
+            GROUP BY k.KEPT_ID, d.PRODUCT_ID""";
+    private static final String DUPLICATE_DOCUMENTS = """
+            SELECT k.KEPT_ID, b.ITEMS
+            FROM BASKETS b
+                JOIN (SELECT CUSTOMER_ID, MIN(BASKET_ID) AS KEPT_ID FROM BASKETS GROUP BY CUSTOMER_ID HAVING COUNT(*) > 1) k
+                    ON k.CUSTOMER_ID = b.CUSTOMER_ID
+            WHERE b.ITEMS IS NOT NULL""";
+    private static final String UPDATE_DOCUMENT = "UPDATE BASKETS SET ITEMS = ? WHERE BASKET_ID = ?";
+    private static final String DELETE_ITEMS = "DELETE FROM BASKET_ITEMS WHERE BASKET_ID NOT IN (SELECT MIN(BASKET_ID) FROM BASKETS GROUP BY CUSTOMER_ID)";
+    private static final String DELETE_BASKETS = "DELETE FROM BASKETS WHERE BASKET_ID NOT IN (SELECT MIN(BASKET_ID) FROM BASKETS GROUP BY CUSTOMER_ID)";
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        jdbcTemplate.update(MERGE_AMOUNTS);
+        jdbcTemplate.update(MOVE_ITEMS);
+        mergeDocuments(jdbcTemplate);
+        jdbcTemplate.update(DELETE_ITEMS);
+        jdbcTemplate.update(DELETE_BASKETS);
+        jdbcTemplate.execute("DROP INDEX BASKETS_CUSTOMER_ID_IDX");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX BASKETS_CUSTOMER_ID_IDX ON BASKETS (CUSTOMER_ID)");
+    }
+
+    private static void mergeDocuments(JdbcTemplate jdbcTemplate) {
+        Map<Long, Map<Long, BasketItem>> itemsByKeptBasket = new HashMap<>();
+        jdbcTemplate.query(DUPLICATE_DOCUMENTS, rs -> {
+            Map<Long, BasketItem> merged = itemsByKeptBasket.computeIfAbsent(rs.getLong("KEPT_ID"), id -> new HashMap<>());
+            BasketItemsCodec.decode(rs.getBytes("ITEMS")).values().forEach(item ->
+                    merged.merge(item.productId(), item, (kept, added) -> new BasketItem(kept.productId(), kept.amount() + added.amount())));
+        });
+        jdbcTemplate.batchUpdate(UPDATE_DOCUMENT, itemsByKeptBasket.entrySet().stream()
+                .map(entry -> new Object[]{BasketItemsCodec.encode(entry.getValue().values()), entry.getKey()})
+                .toList());
+    }
+}
@@ -0,0 +1,138 @@
+package org.lager.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+// LRU cache with a size bound and a time-to-live; absent values are not cached.
+// Hits take no lock: an entry only records when it was last read. A put that overflows the cache drops the expired
+// entries and then the least recently read ones, a sixteenth of the cache at once, so that the scan pays off
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final int evictedSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    BoundedCache(int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("Cache's max size has to be positive: " + maxSize);
+        this.maxSize = maxSize;
+        this.evictedSize = maxSize - maxSize / 16;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    public Optional<V> get(K key, Function<? super K, Optional<V>> loader) {
+        Entry<V> entry = entries.get(key);
+        long now = clock.getAsLong();
+        if (entry != null && !entry.isExpired(now)) {
+            entry.lastAccess = now;
+            hits.increment();
+            return Optional.of(entry.value);
+        }
+        if (entry != null && entries.remove(key, entry))
+            evictions.increment();
+        misses.increment();
+        long seenInvalidations = invalidations.get();
+        Optional<V> loaded = loader.apply(key);
+        loaded.ifPresent(value -> putUnlessInvalidated(key, value, seenInvalidations));
+        return loaded;
+    }
+
+    // a value loaded before an invalidation may already be stale, so it is dropped;
+    // checking again after the put catches an invalidation that ran in between
+    private void putUnlessInvalidated(K key, V value, long seenInvalidations) {
+        if (invalidations.get() != seenInvalidations)
+            return;
+        long now = clock.getAsLong();
+        Entry<V> entry = new Entry<>(value, now + ttlNanos, now);
+        entries.put(key, entry);
+        if (invalidations.get() != seenInvalidations) {
+            entries.remove(key, entry);
+            return;
+        }
+        if (entries.size() > maxSize)
+            evictOverflow();
+    }
+
+    private void evictOverflow() {
+        synchronized (evictionLock) {
+            if (entries.size() <= maxSize)
+                return;
+            long now = clock.getAsLong();
+            List<Map.Entry<K, Entry<V>>> live = new ArrayList<>(entries.size());
+            for (Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+                if (candidate.getValue().isExpired(now))
+                    evict(candidate);
+                else
+                    live.add(candidate);
+            }
+            int overflow = live.size() - evictedSize;
+            if (overflow <= 0)
+                return;
+            live.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccess));
+            live.subList(0, overflow).forEach(this::evict);
+        }
+    }
+
+    private void evict(Map.Entry<K, Entry<V>> candidate) {
+        if (entries.remove(candidate.getKey(), candidate.getValue()))
+            evictions.increment();
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<? super V> matching) {
+        invalidations.incrementAndGet();
+        entries.values().removeIf(entry -> matching.test(entry.value));
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private Entry(V value, long expiresAt, long lastAccess) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.lager.cache;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.lager.model.CacheRegions;
+import org.lager.model.dto.ProductDto;
+import org.lager.model.dto.ProductJson;
+import org.lager.security.JwtTokenProvider;
+import org.lager.security.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.unit.DataSize;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    BoundedCache<Long, ProductDto> productCache(@Value("${product.cache.max-size:10000}") int maxSize,
+                                                @Value("${product.cache.ttl:10m}") Duration ttl) {
+        return new BoundedCache<>(maxSize, ttl);
+    }
+
+    @Bean
+    BoundedCache<Long, ProductJson> productJsonCache(@Value("${product.cache.max-size:10000}") int maxSize,
+                                                     @Value("${product.cache.ttl:10m}") Duration ttl) {
+        return new BoundedCache<>(maxSize, ttl);
+    }
+
+    // no token is valid for longer, so neither is an entry
+    @Bean
+    BoundedCache<String, VerifiedToken> tokenCache(@Value("${security.token-cache.max-size:10000}") int maxSize) {
+        return new BoundedCache<>(maxSize, JwtTokenProvider.VALID_DURATION);
+    }
+
+    @Bean
+    BoundedCache<String, UserDetails> userCache(@Value("${security.user-cache.max-size:1000}") int maxSize,
+                                                @Value("${security.user-cache.ttl:5m}") Duration ttl) {
+        return new BoundedCache<>(maxSize, ttl);
+    }
+
+    @Bean
+    OffHeapCache orderCache(@Value("${order.cache.budget:64MB}") DataSize budget,
+                            @Value("${order.cache.block-size:64}") int blockSize) {
+        return new OffHeapCache(budget.toBytes(), blockSize);
+    }
+
+    // a manager of its own per context, so that test contexts never share regions
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(Environment environment) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("lager:hibernate:" + UUID.randomUUID()),
+                new DefaultConfiguration(getClass().getClassLoader()));
+        for (String region : CacheRegions.ALL) {
+            long maxEntries = environment.getProperty("jpa.cache." + region + ".max-entries", Long.class, 10_000L);
+            Duration ttl = DurationStyle.detectAndParse(environment.getProperty("jpa.cache." + region + ".ttl", "10m"));
+            cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(
+                    CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl))));
+        }
+        return cacheManager;
+    }
+
+    // regions missing from the manager fail at startup instead of being created unbounded
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package org.lager.cache;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// compressed set of live IDs; loaded once from the loader, then kept up to date by add/remove
+public class IdBitmap {
+
+    private final Supplier<? extends Collection<Long>> loader;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Roaring64Bitmap ids;
+    private volatile long removals;
+
+    public IdBitmap(Supplier<? extends Collection<Long>> loader) {
+        this.loader = loader;
+    }
+
+    // loads under the write lock, so no add or remove can slip between the query and the swap
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            Roaring64Bitmap loaded = new Roaring64Bitmap();
+            loader.get().forEach(loaded::addLong);
+            loaded.runOptimize();
+            ids = loaded;
+            removals++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (ids != null)
+                return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (ids == null)
+                reload();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return ids.contains(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> toList() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return Arrays.stream(ids.toArray()).boxed().toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(long id) {
+        ensureLoaded();
+        lock.writeLock().lock();
+        try {
+            ids.addLong(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // read before looking an ID up in the DB, so that addUnlessRemovedSince can tell whether it raced a delete
+    public long removals() {
+        return removals;
+    }
+
+    public void addUnlessRemovedSince(long id, long seenRemovals) {
+        ensureLoaded();
+        lock.writeLock().lock();
+        try {
+            if (removals == seenRemovals)
+                ids.addLong(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        removeAll(List.of(id));
+    }
+
+    public void removeAll(Collection<Long> removedIds) {
+        ensureLoaded();
+        lock.writeLock().lock();
+        try {
+            removedIds.forEach(ids::removeLong);
+            removals++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.lager.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.lager.repository.Databases;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+// tells the other instances which entities changed, via Postgres NOTIFY; notifications sent while
+// the listening connection was down are lost, so all subscribers flush everything after a reconnect
+@Component
+public class InvalidationBus {
+    private final static Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+    public final static String PRODUCT_TOPIC = "product";
+    public final static String CUSTOMER_TOPIC = "customer";
+    public final static String BASKET_TOPIC = "basket";
+    final static String CHANNEL = "lager_invalidation";
+    // NOTIFY payloads must stay below 8000 bytes
+    final static int MAX_PAYLOAD_LENGTH = 7900;
+    private final static int POLL_MILLIS = 500;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+    private final Duration reconnectDelay;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread listener;
+
+    @Autowired
+    public InvalidationBus(DataSource dataSource,
+                           @Value("${cache.invalidation.reconnect-delay:5s}") Duration reconnectDelay) throws MetaDataAccessException {
+        this(dataSource, Databases.isPostgres(dataSource), reconnectDelay);
+    }
+
+    InvalidationBus(DataSource dataSource, boolean postgres, Duration reconnectDelay) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = postgres ? new JdbcTemplate(dataSource) : null;
+        this.postgres = postgres;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    public enum Change {CREATED, UPDATED, DELETED}
+
+    public interface ChangeListener {
+        void changed(Change change, long id);
+    }
+
+    // for caches that drop an entry whatever the change was
+    public void subscribe(String topic, LongConsumer evict, Runnable evictAll) {
+        subscribeChanges(topic, (change, id) -> evict.accept(id), evictAll);
+    }
+
+    public void subscribeChanges(String topic, ChangeListener listener, Runnable evictAll) {
+        subscribers.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(new Subscriber(listener, evictAll));
+    }
+
+    public void publish(String topic, Change change, long id) {
+        publish(topic, change, List.of(id));
+    }
+
+    // sent with the surrounding transaction's commit; a failure is only logged, as the change itself is done
+    public void publish(String topic, Change change, Collection<Long> ids) {
+        if (!postgres || ids.isEmpty())
+            return;
+        try {
+            for (String payload : payloads(nodeId, topic, change, ids))
+                jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+        } catch (DataAccessException e) {
+            logger.warn("InvalidationBus could not publish {} changes of {}", ids.size(), topic, e);
+        }
+    }
+
+    static List<String> payloads(String nodeId, String topic, Change change, Collection<Long> ids) {
+        String prefix = nodeId + ":" + topic + ":" + change + ":";
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(prefix);
+        for (Long id : ids) {
+            String next = String.valueOf(id);
+            if (payload.length() > prefix.length() && payload.length() + 1 + next.length() > MAX_PAYLOAD_LENGTH) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(prefix);
+            }
+            if (payload.length() > prefix.length())
+                payload.append(',');
+            payload.append(next);
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    void receive(String payload) {
+        String[] parts = payload.split(":", 4);
+        if (parts.length < 4 || parts[0].equals(nodeId))
+            return;
+        List<Subscriber> topicSubscribers = subscribers.getOrDefault(parts[1], List.of());
+        Change change = Change.valueOf(parts[2]);
+        for (String id : parts[3].split(",")) {
+            long changedId = Long.parseLong(id);
+            topicSubscribers.forEach(subscriber -> subscriber.listener().changed(change, changedId));
+        }
+    }
+
+    void flushAll() {
+        subscribers.values().forEach(topicSubscribers ->
+                topicSubscribers.forEach(subscriber -> subscriber.evictAll().run()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!postgres || running)
+            return;
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("invalidation-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running)
+            return;
+        running = false;
+        listener.interrupt();
+        listener.join(2L * POLL_MILLIS);
+    }
+
+    private void listen() {
+        boolean missed = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                if (missed) {
+                    logger.info("InvalidationBus is listening again and flushes all caches");
+                    flushAll();
+                    missed = false;
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running)
+                    receiveAll(pgConnection.getNotifications(POLL_MILLIS));
+            } catch (SQLException | RuntimeException e) {
+                if (!running)
+                    return;
+                missed = true;
+                logger.warn("InvalidationBus lost its connection, reconnects in {}", reconnectDelay, e);
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receiveAll(PGNotification[] notifications) {
+        if (notifications == null)
+            return;
+        for (PGNotification notification : notifications) {
+            try {
+                receive(notification.getParameter());
+            } catch (RuntimeException e) {
+                logger.warn("InvalidationBus ignores malformed notification {}", notification.getParameter(), e);
+            }
+        }
+    }
+
+    private record Subscriber(ChangeListener listener, Runnable evictAll) {
+    }
+}
@@ -0,0 +1,4 @@
+package org.lager.cache;
+
+public record LookupStats(long calls, long collapsed) {
+}
@@ -0,0 +1,196 @@
+package org.lager.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+
+// LRU cache of serialized values kept in direct memory, split into fixed-size blocks within a byte budget.
+// Its bookkeeping lives in primitive arrays allocated once: a value is known by its first block, which holds
+// its key, length and LRU neighbours, and an open-addressing table maps keys to first blocks
+public class OffHeapCache {
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final int MAX_BLOCKS = 1 << 29;
+    private static final int NONE = -1;
+
+    private final int blockSize;
+    private final int blocksPerSegment;
+    private final ByteBuffer[] segments;
+    private final int capacityInBlocks;
+    // per block: the next block of its value or of the free list
+    private final int[] nextBlocks;
+    // per first block: its value's key, length and LRU neighbours
+    private final long[] keys;
+    private final int[] lengths;
+    private final int[] older;
+    private final int[] newer;
+    // first block per key, at most half full so that probes stay short
+    private final int[] slots;
+    private final int mask;
+
+    private int freeHead;
+    private int freeCount;
+    private int eldest = NONE;
+    private int youngest = NONE;
+    private int size;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public OffHeapCache(long budgetBytes, int blockSize) {
+        if (blockSize <= 0 || budgetBytes < blockSize)
+            throw new IllegalArgumentException("Cache's budget has to hold at least one block: " + budgetBytes);
+        this.blockSize = blockSize;
+        this.blocksPerSegment = MAX_SEGMENT_BYTES / blockSize;
+        long blocks = budgetBytes / blockSize;
+        if (blocks > MAX_BLOCKS)
+            throw new IllegalArgumentException("Cache's budget is too large for its block size: " + budgetBytes);
+        this.capacityInBlocks = (int) blocks;
+        int segmentCount = (int) ((blocks + blocksPerSegment - 1) / blocksPerSegment);
+        this.segments = new ByteBuffer[segmentCount];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            long segmentBlocks = Math.min(blocksPerSegment, blocks - (long) segment * blocksPerSegment);
+            segments[segment] = ByteBuffer.allocateDirect((int) segmentBlocks * blockSize);
+        }
+        this.nextBlocks = new int[capacityInBlocks];
+        for (int block = 0; block < capacityInBlocks; block++)
+            nextBlocks[block] = block + 1 < capacityInBlocks ? block + 1 : NONE;
+        this.freeHead = 0;
+        this.freeCount = capacityInBlocks;
+        this.keys = new long[capacityInBlocks];
+        this.lengths = new int[capacityInBlocks];
+        this.older = new int[capacityInBlocks];
+        this.newer = new int[capacityInBlocks];
+        this.slots = new int[Integer.highestOneBit(capacityInBlocks * 2 - 1) << 1];
+        Arrays.fill(slots, NONE);
+        this.mask = slots.length - 1;
+    }
+
+    public synchronized Optional<byte[]> get(long key) {
+        int first = slots[slotOf(key)];
+        if (first == NONE) {
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        unlink(first);
+        linkYoungest(first);
+        return Optional.of(read(first));
+    }
+
+    // values larger than the whole budget are not cached
+    public synchronized void put(long key, byte[] value) {
+        int slot = slotOf(key);
+        if (slots[slot] != NONE)
+            remove(slot);
+        int needed = blocksFor(value.length);
+        if (needed > capacityInBlocks)
+            return;
+        while (freeCount < needed) {
+            remove(slotOf(keys[eldest]));
+            evictions++;
+        }
+        int first = freeHead;
+        int last = first;
+        for (int i = 1; i < needed; i++)
+            last = nextBlocks[last];
+        freeHead = nextBlocks[last];
+        nextBlocks[last] = NONE;
+        freeCount -= needed;
+        keys[first] = key;
+        lengths[first] = value.length;
+        write(first, value);
+        linkYoungest(first);
+        slots[slotOf(key)] = first;
+        size++;
+    }
+
+    private int blocksFor(int length) {
+        return Math.max(1, (length + blockSize - 1) / blockSize);
+    }
+
+    private int slotOf(long key) {
+        int slot = home(key);
+        while (slots[slot] != NONE && keys[slots[slot]] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private int home(long key) {
+        return Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+    }
+
+    // frees the value's blocks and shifts back the keys probed past its slot, so that no probe stops early
+    private void remove(int slot) {
+        int first = slots[slot];
+        unlink(first);
+        int last = first;
+        while (nextBlocks[last] != NONE)
+            last = nextBlocks[last];
+        nextBlocks[last] = freeHead;
+        freeHead = first;
+        freeCount += blocksFor(lengths[first]);
+        size--;
+        int gap = slot;
+        for (int next = (slot + 1) & mask; slots[next] != NONE; next = (next + 1) & mask) {
+            if (((next - home(keys[slots[next]])) & mask) >= ((next - gap) & mask)) {
+                slots[gap] = slots[next];
+                gap = next;
+            }
+        }
+        slots[gap] = NONE;
+    }
+
+    private void linkYoungest(int first) {
+        older[first] = youngest;
+        newer[first] = NONE;
+        if (youngest != NONE)
+            newer[youngest] = first;
+        else
+            eldest = first;
+        youngest = first;
+    }
+
+    private void unlink(int first) {
+        if (older[first] != NONE)
+            newer[older[first]] = newer[first];
+        else
+            eldest = newer[first];
+        if (newer[first] != NONE)
+            older[newer[first]] = older[first];
+        else
+            youngest = older[first];
+    }
+
+    private void write(int first, byte[] value) {
+        int offset = 0;
+        for (int block = first; block != NONE; block = nextBlocks[block]) {
+            int length = Math.min(blockSize, value.length - offset);
+            segmentOf(block).put(positionOf(block), value, offset, length);
+            offset += length;
+        }
+    }
+
+    private byte[] read(int first) {
+        byte[] value = new byte[lengths[first]];
+        int offset = 0;
+        for (int block = first; block != NONE; block = nextBlocks[block]) {
+            int length = Math.min(blockSize, value.length - offset);
+            segmentOf(block).get(positionOf(block), value, offset, length);
+            offset += length;
+        }
+        return value;
+    }
+
+    private ByteBuffer segmentOf(int block) {
+        return segments[block / blocksPerSegment];
+    }
+
+    private int positionOf(int block) {
+        return (block % blocksPerSegment) * blockSize;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, size);
+    }
+}
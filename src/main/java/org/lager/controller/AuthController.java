@@ -5,6 +5,7 @@ import org.lager.security.JwtTokenProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -28,8 +29,9 @@ public class AuthController {
     public String login(@RequestBody UserDto userDto) {
 
         try {
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(userDto.login(), userDto.password()));
-            return tokenProvider.generateToken(userDto.login());
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(userDto.login(), userDto.password()));
+            return tokenProvider.generateToken(authentication.getName(), authentication.getAuthorities());
         } catch (AuthenticationException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
         }
@@ -1,10 +1,15 @@
 package org.lager.controller;
 
 import org.lager.exception.*;
+import org.lager.model.BasketItem;
 import org.lager.model.dto.BasketDto;
+import org.lager.model.dto.IdPageDto;
 import org.lager.service.BasketService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -12,6 +17,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/basket")
 public class BasketController {
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     private final BasketService service;
 
@@ -25,10 +31,30 @@ public class BasketController {
         return service.getAllIds();
     }
 
-    @GetMapping("/{customerId}")
+    @GetMapping(params = "limit")
+    @ResponseStatus(code = HttpStatus.OK)
+    public IdPageDto getIds(@RequestParam(defaultValue = "0") long after, @RequestParam int limit) {
+        try {
+            return service.getIds(after, limit);
+        } catch (PageIllegalLimitException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(params = {"after", "!limit"})
     @ResponseStatus(code = HttpStatus.OK)
-    public BasketDto getBasket(@PathVariable long customerId) {
-        return service.get(customerId);
+    public IdPageDto getIdsAfter(@RequestParam long after) {
+        return getIds(after, IdPageDto.MAX_LIMIT);
+    }
+
+    @GetMapping("/{customerId}")
+    public ResponseEntity<BasketDto> getBasket(@PathVariable long customerId, WebRequest request) {
+        BasketDto basket = service.get(customerId);
+        if (request.checkNotModified(service.getETag(basket)))
+            return null;
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(basket);
     }
 
     @DeleteMapping("/{customerId}")
@@ -49,7 +75,7 @@ public class BasketController {
 
     @PostMapping({"/{customerId}/{productId}", "/{customerId}/{productId}/{amount}"})
     @ResponseStatus(code = HttpStatus.ACCEPTED)
-    public BasketDto addToBasket(@PathVariable long customerId, @PathVariable long productId, @PathVariable(required = false) Integer amount) {
+    public BasketItem addToBasket(@PathVariable long customerId, @PathVariable long productId, @PathVariable(required = false) Integer amount) {
         try {
             return service.addToBasket(customerId, productId, amount == null ? 1 : amount);
         } catch (NoSuchProductException | NoSuchCustomerException e) {
@@ -0,0 +1,45 @@
+package org.lager.controller;
+
+import org.lager.cache.CacheStats;
+import org.lager.model.dto.CacheRegionDto;
+import org.lager.security.CachingUserDetailsManager;
+import org.lager.security.JwtTokenProvider;
+import org.lager.service.CacheRegionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    private final CacheRegionService service;
+    private final JwtTokenProvider tokenProvider;
+    private final CachingUserDetailsManager userDetailsManager;
+
+    public CacheController(CacheRegionService service, JwtTokenProvider tokenProvider,
+                           CachingUserDetailsManager userDetailsManager) {
+        this.service = service;
+        this.tokenProvider = tokenProvider;
+        this.userDetailsManager = userDetailsManager;
+    }
+
+    @GetMapping("/regions")
+    @ResponseStatus(code = HttpStatus.OK)
+    public List<CacheRegionDto> getRegionStats() {
+        return service.getRegionStats();
+    }
+
+    @GetMapping("/tokens")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CacheStats getTokenCacheStats() {
+        return tokenProvider.getCacheStats();
+    }
+
+    @GetMapping("/users")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CacheStats getUserCacheStats() {
+        return userDetailsManager.getCacheStats();
+    }
+}
@@ -3,10 +3,15 @@ package org.lager.controller;
 import org.lager.exception.CustomerIllegalIdException;
 import org.lager.exception.CustomerIllegalNameException;
 import org.lager.exception.NoSuchCustomerException;
+import org.lager.exception.PageIllegalLimitException;
 import org.lager.model.dto.CustomerDto;
+import org.lager.model.dto.IdPageDto;
 import org.lager.service.CustomerService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -14,6 +19,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/customer")
 public class CustomerController {
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     private final CustomerService service;
 
@@ -27,6 +33,22 @@ public class CustomerController {
         return service.getAllIds();
     }
 
+    @GetMapping(params = "limit")
+    @ResponseStatus(code = HttpStatus.OK)
+    public IdPageDto getIds(@RequestParam(defaultValue = "0") long after, @RequestParam int limit) {
+        try {
+            return service.getIds(after, limit);
+        } catch (PageIllegalLimitException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(params = {"after", "!limit"})
+    @ResponseStatus(code = HttpStatus.OK)
+    public IdPageDto getIdsAfter(@RequestParam long after) {
+        return getIds(after, IdPageDto.MAX_LIMIT);
+    }
+
     @PostMapping("/{newCustomerName}")
     @ResponseStatus(code = HttpStatus.CREATED)
     public CustomerDto createCustomer(@PathVariable String newCustomerName) {
@@ -40,10 +62,13 @@ public class CustomerController {
     }
 
     @GetMapping("{customerId}")
-    @ResponseStatus(code = HttpStatus.OK)
-    public CustomerDto getCustomer(@PathVariable long customerId) {
+    public ResponseEntity<CustomerDto> getCustomer(@PathVariable long customerId, WebRequest request) {
         try {
-            return service.get(customerId);
+            if (request.checkNotModified(service.getETag(customerId)))
+                return null;
+            return ResponseEntity.ok()
+                    .cacheControl(REVALIDATE)
+                    .body(service.get(customerId));
         } catch (NoSuchCustomerException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
@@ -64,4 +89,10 @@ public class CustomerController {
     public void deleteCustomer(@PathVariable long customerId) {
         service.delete(customerId);
     }
-}
+
+    @DeleteMapping
+    @ResponseStatus(code = HttpStatus.ACCEPTED)
+    public int deleteCustomers(@RequestBody List<Long> customerIds) {
+        return service.delete(customerIds);
+    }
+}
\ No newline at end of file
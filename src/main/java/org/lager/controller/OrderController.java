@@ -1,17 +1,24 @@
 package org.lager.controller;
 
+import org.lager.cache.LookupStats;
 import org.lager.exception.*;
+import org.lager.model.dto.IdPageDto;
 import org.lager.model.dto.OrderDto;
 import org.lager.service.OrderService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
 @RequestMapping("/order")
 public class OrderController {
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
 
     private final OrderService service;
 
@@ -25,11 +32,37 @@ public class OrderController {
         return service.getAllIds();
     }
 
-    @GetMapping("/{orderId}")
+    @GetMapping(params = "limit")
+    @ResponseStatus(code = HttpStatus.OK)
+    public IdPageDto getIds(@RequestParam(defaultValue = "0") long after, @RequestParam int limit) {
+        try {
+            return service.getIds(after, limit);
+        } catch (PageIllegalLimitException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(params = {"after", "!limit"})
     @ResponseStatus(code = HttpStatus.OK)
-    public OrderDto getOrder(@PathVariable long orderId) {
+    public IdPageDto getIdsAfter(@RequestParam long after) {
+        return getIds(after, IdPageDto.MAX_LIMIT);
+    }
+
+    @GetMapping("/lookup-stats")
+    @ResponseStatus(code = HttpStatus.OK)
+    public LookupStats getLookupStats() {
+        return service.getLookupStats();
+    }
+
+    // orders never change, so the ID is a sufficient ETag and a match needs no lookup at all
+    @GetMapping("/{orderId}")
+    public ResponseEntity<OrderDto> getOrder(@PathVariable long orderId, WebRequest request) {
         try {
-            return service.get(orderId);
+            if (request.checkNotModified(Long.toString(orderId)))
+                return null;
+            return ResponseEntity.ok()
+                    .cacheControl(IMMUTABLE)
+                    .body(service.get(orderId));
         } catch (NoSuchOrderException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
@@ -0,0 +1,29 @@
+package org.lager.controller;
+
+import org.lager.service.OrderExportService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/order/export")
+public class OrderExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final OrderExportService service;
+
+    public OrderExportController(OrderExportService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = service::export;
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+}
@@ -1,10 +1,19 @@
 package org.lager.controller;
 
+import org.lager.cache.CacheStats;
+import org.lager.cache.LookupStats;
 import org.lager.exception.*;
+import org.lager.model.dto.IdPageDto;
+import org.lager.model.dto.ProductChangesDto;
 import org.lager.model.dto.ProductDto;
+import org.lager.model.dto.ProductJson;
 import org.lager.service.ProductService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -12,6 +21,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/product")
 public class ProductController {
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     private final ProductService service;
 
@@ -25,6 +35,44 @@ public class ProductController {
         return service.getAllIds();
     }
 
+    @GetMapping(params = "limit")
+    @ResponseStatus(code = HttpStatus.OK)
+    public IdPageDto getIds(@RequestParam(defaultValue = "0") long after, @RequestParam int limit) {
+        try {
+            return service.getIds(after, limit);
+        } catch (PageIllegalLimitException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(params = {"after", "!limit"})
+    @ResponseStatus(code = HttpStatus.OK)
+    public IdPageDto getIdsAfter(@RequestParam long after) {
+        return getIds(after, IdPageDto.MAX_LIMIT);
+    }
+
+    @GetMapping("/changes")
+    @ResponseStatus(code = HttpStatus.OK)
+    public ProductChangesDto getChanges(@RequestParam long since, @RequestParam(defaultValue = "1000") int limit) {
+        try {
+            return service.getChanges(since, limit);
+        } catch (PageIllegalLimitException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/cache-stats")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CacheStats getCacheStats() {
+        return service.getCacheStats();
+    }
+
+    @GetMapping("/lookup-stats")
+    @ResponseStatus(code = HttpStatus.OK)
+    public LookupStats getLookupStats() {
+        return service.getLookupStats();
+    }
+
     @PostMapping("/{newProductName}")
     @ResponseStatus(code = HttpStatus.CREATED)
     public ProductDto createProduct(@PathVariable String newProductName) {
@@ -37,11 +85,15 @@ public class ProductController {
         }
     }
 
-    @GetMapping("/{productId}")
-    @ResponseStatus(code = HttpStatus.OK)
-    public ProductDto getProduct(@PathVariable long productId) {
+    @GetMapping(value = "/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getProduct(@PathVariable long productId, WebRequest request) {
         try {
-            return service.get(productId);
+            ProductJson product = service.getJson(productId);
+            if (request.checkNotModified(product.eTag()))
+                return null;
+            return ResponseEntity.ok()
+                    .cacheControl(REVALIDATE)
+                    .body(product.body());
         } catch (NoSuchProductException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
         }
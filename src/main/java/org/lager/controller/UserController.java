@@ -40,4 +40,14 @@ public class UserController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
+
+    @DeleteMapping("/tokens")
+    @ResponseStatus(code = HttpStatus.ACCEPTED)
+    public void revokeTokens(@RequestBody UserDto user) {
+        try {
+            service.revokeTokens(user.login());
+        } catch (UserIllegalLoginException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
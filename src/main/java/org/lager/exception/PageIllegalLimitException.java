@@ -0,0 +1,7 @@
+package org.lager.exception;
+
+public class PageIllegalLimitException extends RuntimeException {
+    public PageIllegalLimitException(int limit) {
+        super("Page's limit is invalid: " + limit);
+    }
+}
@@ -1,6 +1,8 @@
 package org.lager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.annotation.PersistenceCreator;
@@ -14,16 +16,18 @@ import java.util.stream.Collectors;
 @Table(name = "BASKETS")
 @Entity
 public class Basket {
+    public final static String ITEMS_ROLE = Basket.class.getName() + ".items";
     private final static Logger logger = LoggerFactory.getLogger(Basket.class);
 
     @Id
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "BASKET_KEY")
-    @SequenceGenerator(name = "BASKET_KEY", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "BASKET_KEY")
+    @SequenceGenerator(name = "BASKET_KEY", allocationSize = IdAllocation.BLOCK_SIZE)
     private final long basketId;
     private final long customerId;
     @ElementCollection(targetClass = BasketItem.class, fetch = FetchType.EAGER)
     @CollectionTable(name = "BASKET_ITEMS", joinColumns = @JoinColumn(name = "BASKET_ID"))
     @MapKeyColumn(name = "MAP_KEY")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.BASKET_ITEMS)
     private final Map<Long, BasketItem> items;
 
     private Basket() {
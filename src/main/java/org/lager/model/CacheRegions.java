@@ -0,0 +1,14 @@
+package org.lager.model;
+
+import java.util.List;
+
+public final class CacheRegions {
+    // Hibernate second-level cache regions, sized by jpa.cache.<region>.* (see CacheConfig)
+    public static final String PRODUCTS = "products";
+    public static final String CUSTOMERS = "customers";
+    public static final String BASKET_ITEMS = "basket-items";
+    public static final List<String> ALL = List.of(PRODUCTS, CUSTOMERS, BASKET_ITEMS);
+
+    private CacheRegions() {
+    }
+}
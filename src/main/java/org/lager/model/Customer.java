@@ -1,6 +1,8 @@
 package org.lager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.lager.exception.CustomerIllegalIdException;
 import org.lager.exception.CustomerIllegalNameException;
 import org.slf4j.Logger;
@@ -11,6 +13,8 @@ import java.util.Objects;
 
 @Table(name = "CUSTOMERS")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CUSTOMERS)
 public class Customer {
     private static final String NAME_REGEX = "^[a-zA-Z]{3,16}$";
     private static final long ID_MIN = 100_000_000;
@@ -18,11 +22,14 @@ public class Customer {
     private final static Logger logger = LoggerFactory.getLogger(Customer.class);
 
     @Id
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "CUSTOMER_KEY")
-    @SequenceGenerator(name = "CUSTOMER_KEY", initialValue = (int) ID_MIN, allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "CUSTOMER_KEY")
+    @SequenceGenerator(name = "CUSTOMER_KEY", initialValue = (int) ID_MIN, allocationSize = IdAllocation.BLOCK_SIZE)
     private final long customerId;
     private String customerName;
 
+    @Version
+    private long version;
+
     private Customer() {
         this.customerId = 0;
         customerName = "";
@@ -60,6 +67,10 @@ public class Customer {
         return customerName;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public void setCustomerName(String customerName) {
         logger.info("Customer {} with {} customerName is changing its customerName to {}.", this.customerId, this.customerName, customerName);
         validateName(customerName);
@@ -0,0 +1,9 @@
+package org.lager.model;
+
+public final class IdAllocation {
+    // must match INCREMENT BY of the *_KEY sequences, see V5__pooled_id_allocation.sql
+    public static final int BLOCK_SIZE = 50;
+
+    private IdAllocation() {
+    }
+}
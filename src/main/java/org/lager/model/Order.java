@@ -3,9 +3,8 @@ package org.lager.model;
 import jakarta.persistence.*;
 import org.lager.exception.OrderIllegalIdException;
 import org.lager.exception.OrderItemSetNotPresentException;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.data.annotation.PersistenceCreator;
+import org.springframework.data.domain.Persistable;
 
 import java.util.Collection;
 import java.util.Objects;
@@ -13,14 +12,8 @@ import java.util.Set;
 
 @Table(name = "ORDERS")
 @Entity
-public class Order {
-    private static final long ID_MIN = 1000;
-    private static final long ID_MAX = 9999;
-    private final static Logger logger = LoggerFactory.getLogger(Order.class);
-
+public class Order implements Persistable<Long> {
     @Id
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ORDER_KEY")
-    @SequenceGenerator(name = "ORDER_KEY", initialValue = (int) ID_MIN, allocationSize = 1)
     private final long orderId;
     private final long customerId;
 
@@ -28,17 +21,15 @@ public class Order {
     @CollectionTable(name = "ORDER_ITEMS", joinColumns = @JoinColumn(name = "ORDER_ID"))
     private final Set<OrderItem> items;
 
+    @Transient
+    private boolean persisted;
+
     private Order() {
         this.orderId = 0;
         this.customerId = 0;
         this.items = Set.of();
     }
 
-    public Order(long customerId, Collection<OrderItem> items) {
-        this(0, customerId, items);
-        logger.info("New Order {} has been created.", customerId);
-    }
-
     @PersistenceCreator
     public Order(long orderId, long customerId, Collection<OrderItem> items) {
         validateId(orderId);
@@ -49,7 +40,7 @@ public class Order {
     }
 
     private void validateId(long id) {
-        if (id != 0 && (id < ID_MIN || id > ID_MAX))
+        if (id <= 0)
             throw new OrderIllegalIdException(id);
     }
 
@@ -70,6 +61,23 @@ public class Order {
         return Set.copyOf(items);
     }
 
+    @Override
+    public Long getId() {
+        return orderId;
+    }
+
+    // IDs are assigned before saving, so without this flag every save would SELECT first to tell new from existing
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    private void markPersisted() {
+        persisted = true;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(orderId, customerId, items);
@@ -1,6 +1,8 @@
 package org.lager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.lager.exception.ProductIllegalIdException;
 import org.lager.exception.ProductIllegalNameException;
 import org.lager.exception.ProductIllegalPriceException;
@@ -11,6 +13,8 @@ import java.util.Objects;
 
 @Table(name = "PRODUCTS")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PRODUCTS)
 public class Product {
     private static final String NAME_REGEX = "^[a-zA-Z0-9- ]{3,24}$";
     private static final long ID_MIN = 100_000_000;
@@ -19,13 +23,16 @@ public class Product {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "PRODUCT_KEY")
-    @SequenceGenerator(name = "PRODUCT_KEY", initialValue = (int) ID_MIN, allocationSize = 1)
+    @SequenceGenerator(name = "PRODUCT_KEY", initialValue = (int) ID_MIN, allocationSize = IdAllocation.BLOCK_SIZE)
     private final long productId;
 
     private String productName;
 
     private double productPrice;
 
+    @Version
+    private long version;
+
     private Product() {
         productId = 0;
         productName = "";
@@ -74,6 +81,10 @@ public class Product {
         return productPrice;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public void setProductName(String productName) {
         logger.info("Product {} with {} productName is changing its productName to {}.", this.productId, this.productName, productName);
         validateName(productName);
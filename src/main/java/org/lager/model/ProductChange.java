@@ -0,0 +1,63 @@
+package org.lager.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.util.Objects;
+
+@Table(name = "PRODUCT_CHANGES")
+@Entity
+public class ProductChange {
+
+    @Id
+    private final long productId;
+
+    private long changeVersion;
+
+    private boolean deleted;
+
+    private ProductChange() {
+        productId = 0;
+    }
+
+    public ProductChange(long productId, long changeVersion, boolean deleted) {
+        this.productId = productId;
+        this.changeVersion = changeVersion;
+        this.deleted = deleted;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductChange that = (ProductChange) o;
+        return productId == that.productId && changeVersion == that.changeVersion && deleted == that.deleted;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productId, changeVersion, deleted);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChange{" +
+                "productId=" + productId +
+                ", changeVersion=" + changeVersion +
+                ", deleted=" + deleted +
+                '}';
+    }
+}
@@ -0,0 +1,15 @@
+package org.lager.model.dto;
+
+import org.hibernate.stat.CacheRegionStatistics;
+
+public record CacheRegionDto(String region, long hits, long misses, long puts, double hitRatio) {
+
+    public CacheRegionDto(CacheRegionStatistics statistics) {
+        this(statistics.getRegionName(), statistics.getHitCount(), statistics.getMissCount(), statistics.getPutCount(),
+                hitRatio(statistics.getHitCount(), statistics.getMissCount()));
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+}
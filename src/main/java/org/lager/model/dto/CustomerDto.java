@@ -2,9 +2,9 @@ package org.lager.model.dto;
 
 import org.lager.model.Customer;
 
-public record CustomerDto(long customerId, String customerName) {
+public record CustomerDto(long customerId, String customerName, long version) {
 
     public CustomerDto(Customer customer) {
-        this(customer.getCustomerId(), customer.getCustomerName());
+        this(customer.getCustomerId(), customer.getCustomerName(), customer.getVersion());
     }
 }
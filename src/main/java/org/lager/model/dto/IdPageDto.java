@@ -0,0 +1,21 @@
+package org.lager.model.dto;
+
+import org.lager.exception.PageIllegalLimitException;
+
+import java.util.List;
+
+public record IdPageDto(List<Long> ids, Long nextCursor) {
+    public static final int MAX_LIMIT = 1000;
+
+    public static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT)
+            throw new PageIllegalLimitException(limit);
+    }
+
+    public static IdPageDto of(List<Long> fetchedIds, int limit) {
+        if (fetchedIds.size() <= limit)
+            return new IdPageDto(List.copyOf(fetchedIds), null);
+        List<Long> ids = List.copyOf(fetchedIds.subList(0, limit));
+        return new IdPageDto(ids, ids.getLast());
+    }
+}
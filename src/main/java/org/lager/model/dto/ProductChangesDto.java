@@ -0,0 +1,6 @@
+package org.lager.model.dto;
+
+import java.util.List;
+
+public record ProductChangesDto(List<ProductDto> changed, List<Long> deleted, long version, boolean more) {
+}
@@ -2,9 +2,9 @@ package org.lager.model.dto;
 
 import org.lager.model.Product;
 
-public record ProductDto (long productId, String productName, double productPrice) {
+public record ProductDto (long productId, String productName, double productPrice, long version) {
 
     public ProductDto(Product product) {
-        this(product.getProductId(), product.getProductName(), product.getProductPrice());
+        this(product.getProductId(), product.getProductName(), product.getProductPrice(), product.getVersion());
     }
 }
\ No newline at end of file
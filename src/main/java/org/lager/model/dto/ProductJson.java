@@ -0,0 +1,5 @@
+package org.lager.model.dto;
+
+// the ETag travels with the bytes, so a response never pairs one version's body with another's ETag
+public record ProductJson(String eTag, byte[] body) {
+}
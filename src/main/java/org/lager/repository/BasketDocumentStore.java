@@ -0,0 +1,119 @@
+package org.lager.repository;
+
+import org.lager.model.Basket;
+import org.lager.model.BasketItem;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// keeps all items of a basket in the ITEMS column of its BASKETS row instead of BASKET_ITEMS
+@Repository(BasketStore.BACKING_STORE)
+@ConditionalOnProperty(name = "basket.storage", havingValue = "document")
+public class BasketDocumentStore implements BasketStore {
+    private static final String SELECT_BY_CUSTOMER = "SELECT BASKET_ID, CUSTOMER_ID, ITEMS FROM BASKETS WHERE CUSTOMER_ID = ?";
+    private static final String SELECT_ID_BY_CUSTOMER = "SELECT BASKET_ID FROM BASKETS WHERE CUSTOMER_ID = ?";
+    private static final String SELECT_ALL_IDS = "SELECT CUSTOMER_ID FROM BASKETS ORDER BY CUSTOMER_ID";
+    private static final String SELECT_IDS_AFTER = "SELECT CUSTOMER_ID FROM BASKETS WHERE CUSTOMER_ID > ? ORDER BY CUSTOMER_ID FETCH FIRST ? ROWS ONLY";
+    private static final String SELECT_ITEMS_FOR_UPDATE = "SELECT ITEMS FROM BASKETS WHERE BASKET_ID = ? FOR UPDATE";
+    private static final String INSERT = "INSERT INTO BASKETS (BASKET_ID, CUSTOMER_ID, ITEMS) VALUES (?, ?, ?)";
+    private static final String UPDATE_ITEMS = "UPDATE BASKETS SET ITEMS = ? WHERE BASKET_ID = ?";
+    private static final String DELETE_BY_CUSTOMER = "DELETE FROM BASKETS WHERE CUSTOMER_ID = ?";
+    private static final String DELETE_BY_CUSTOMERS = "DELETE FROM BASKETS WHERE CUSTOMER_ID IN (:customerIds)";
+    private static final String POSTGRES_NEXT_ID = "SELECT nextval('BASKET_KEY')";
+    private static final String STANDARD_NEXT_ID = "SELECT NEXT VALUE FOR BASKET_KEY";
+
+    private static final RowMapper<Basket> BASKET_MAPPER = (rs, rowNum) -> new Basket(
+            rs.getLong("BASKET_ID"),
+            rs.getLong("CUSTOMER_ID"),
+            BasketItemsCodec.decode(rs.getBytes("ITEMS")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextIdQuery;
+
+    public BasketDocumentStore(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.nextIdQuery = Databases.isPostgres(dataSource) ? POSTGRES_NEXT_ID : STANDARD_NEXT_ID;
+    }
+
+    @Override
+    public Optional<Basket> findByCustomerId(long customerId) {
+        return jdbcTemplate.query(SELECT_BY_CUSTOMER, BASKET_MAPPER, customerId).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Long> findBasketIdByCustomerId(long customerId) {
+        return jdbcTemplate.queryForList(SELECT_ID_BY_CUSTOMER, Long.class, customerId).stream().findFirst();
+    }
+
+    @Override
+    public List<Long> getAllIds() {
+        return jdbcTemplate.queryForList(SELECT_ALL_IDS, Long.class);
+    }
+
+    @Override
+    public List<Long> getIdsAfter(long after, Limit limit) {
+        return limit.isUnlimited()
+                ? getAllIds().stream().filter(id -> id > after).toList()
+                : jdbcTemplate.queryForList(SELECT_IDS_AFTER, Long.class, after, limit.max());
+    }
+
+    // the sequence hands out pooled blocks to JPA, so a single value taken here never collides with them
+    @Override
+    @Transactional
+    public Basket save(Basket basket) {
+        byte[] items = BasketItemsCodec.encode(basket.getItems());
+        long basketId = basket.getBasketId();
+        if (basketId == 0) {
+            basketId = jdbcTemplate.queryForObject(nextIdQuery, Long.class);
+            jdbcTemplate.update(INSERT, basketId, basket.getCustomerId(), items);
+        } else if (jdbcTemplate.update(UPDATE_ITEMS, items, basketId) == 0) {
+            jdbcTemplate.update(INSERT, basketId, basket.getCustomerId(), items);
+        }
+        return new Basket(basketId, basket.getCustomerId(), BasketItemsCodec.decode(items));
+    }
+
+    @Override
+    @Transactional
+    public void saveAll(Collection<Basket> baskets) {
+        jdbcTemplate.batchUpdate(UPDATE_ITEMS, baskets.stream()
+                .map(basket -> new Object[]{BasketItemsCodec.encode(basket.getItems()), basket.getBasketId()})
+                .toList());
+    }
+
+    @Override
+    public void deleteByCustomerId(long customerId) {
+        jdbcTemplate.update(DELETE_BY_CUSTOMER, customerId);
+    }
+
+    @Override
+    public int deleteAllByCustomerIdIn(Collection<Long> customerIds) {
+        return new NamedParameterJdbcTemplate(jdbcTemplate)
+                .update(DELETE_BY_CUSTOMERS, Map.of("customerIds", customerIds));
+    }
+
+    @Override
+    @Transactional
+    public BasketItem addItem(long basketId, long productId, int amount) {
+        Map<Long, BasketItem> items = BasketItemsCodec.decode(
+                jdbcTemplate.queryForObject(SELECT_ITEMS_FOR_UPDATE, byte[].class, basketId));
+        BasketItem present = items.get(productId);
+        int newAmount = amount + (present == null ? 0 : present.amount());
+        if (newAmount > 0)
+            items.put(productId, new BasketItem(productId, newAmount));
+        else
+            items.remove(productId);
+        jdbcTemplate.update(UPDATE_ITEMS, BasketItemsCodec.encode(items.values()), basketId);
+        return new BasketItem(productId, Math.max(newAmount, 0));
+    }
+}
@@ -0,0 +1,10 @@
+package org.lager.repository;
+
+import org.lager.model.BasketItem;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface BasketItemUpsert {
+
+    @Transactional
+    BasketItem addItem(long basketId, long productId, int amount);
+}
@@ -0,0 +1,57 @@
+package org.lager.repository;
+
+import org.lager.model.BasketItem;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+
+class BasketItemUpsertImpl implements BasketItemUpsert {
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO BASKET_ITEMS (BASKET_ID, MAP_KEY, PRODUCT_ID, AMOUNT) VALUES (?, ?, ?, ?)
+            ON CONFLICT (BASKET_ID, PRODUCT_ID) DO UPDATE SET AMOUNT = BASKET_ITEMS.AMOUNT + EXCLUDED.AMOUNT
+            RETURNING AMOUNT""";
+    private static final String MERGE_UPSERT = """
+            MERGE INTO BASKET_ITEMS i
+            USING (SELECT CAST(? AS BIGINT) AS BASKET_ID, CAST(? AS BIGINT) AS PRODUCT_ID, CAST(? AS INT) AS AMOUNT) d
+            ON i.BASKET_ID = d.BASKET_ID AND i.PRODUCT_ID = d.PRODUCT_ID
+            WHEN MATCHED THEN UPDATE SET AMOUNT = i.AMOUNT + d.AMOUNT
+            WHEN NOT MATCHED THEN INSERT (BASKET_ID, MAP_KEY, PRODUCT_ID, AMOUNT) VALUES (d.BASKET_ID, d.PRODUCT_ID, d.PRODUCT_ID, d.AMOUNT)""";
+    private static final String SELECT_AMOUNT = "SELECT AMOUNT FROM BASKET_ITEMS WHERE BASKET_ID = ? AND PRODUCT_ID = ?";
+    private static final String DELETE_EMPTY = "DELETE FROM BASKET_ITEMS WHERE BASKET_ID = ? AND PRODUCT_ID = ? AND AMOUNT <= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    BasketItemUpsertImpl(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.postgres = Databases.isPostgres(dataSource);
+    }
+
+    @Override
+    public BasketItem addItem(long basketId, long productId, int amount) {
+        int newAmount = postgres
+                ? upsertReturningAmount(basketId, productId, amount)
+                : mergeAndSelectAmount(basketId, productId, amount);
+        if (newAmount > 0)
+            return new BasketItem(productId, newAmount);
+        jdbcTemplate.update(DELETE_EMPTY, basketId, productId);
+        return new BasketItem(productId, 0);
+    }
+
+    private int upsertReturningAmount(long basketId, long productId, int amount) {
+        return jdbcTemplate.queryForObject(POSTGRES_UPSERT, Integer.class, basketId, productId, productId, amount);
+    }
+
+    // the MERGE is not atomic on H2: a concurrent first addition of the product may insert the row in between,
+    // and the second attempt then updates it
+    private int mergeAndSelectAmount(long basketId, long productId, int amount) {
+        try {
+            jdbcTemplate.update(MERGE_UPSERT, basketId, productId, amount);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(MERGE_UPSERT, basketId, productId, amount);
+        }
+        return jdbcTemplate.queryForObject(SELECT_AMOUNT, Integer.class, basketId, productId);
+    }
+}
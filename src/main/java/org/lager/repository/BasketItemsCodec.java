@@ -0,0 +1,36 @@
+package org.lager.repository;
+
+import org.lager.model.BasketItem;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class BasketItemsCodec {
+    private static final int ITEM_BYTES = Long.BYTES + Integer.BYTES;
+
+    private BasketItemsCodec() {
+    }
+
+    public static byte[] encode(Collection<BasketItem> items) {
+        ByteBuffer buffer = ByteBuffer.allocate(items.size() * ITEM_BYTES);
+        for (BasketItem item : items) {
+            buffer.putLong(item.productId());
+            buffer.putInt(item.amount());
+        }
+        return buffer.array();
+    }
+
+    public static Map<Long, BasketItem> decode(byte[] bytes) {
+        Map<Long, BasketItem> items = new HashMap<>();
+        if (bytes == null)
+            return items;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.remaining() >= ITEM_BYTES) {
+            BasketItem item = new BasketItem(buffer.getLong(), buffer.getInt());
+            items.put(item.productId(), item);
+        }
+        return items;
+    }
+}
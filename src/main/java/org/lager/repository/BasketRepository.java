@@ -1,25 +1,38 @@
 package org.lager.repository;
 
 import org.lager.model.Basket;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BasketRepository extends JpaRepository<Basket, Long> {
+public interface BasketRepository extends JpaRepository<Basket, Long>, BasketItemUpsert {
 
     Optional<Basket> findByCustomerId(long customerId);
 
-    default List<Long> getAllIds() {
-        return findAll().stream()
-                .map(Basket::getCustomerId)
-                .toList();
-    }
+    @Query("SELECT b.basketId FROM Basket b WHERE b.customerId = :customerId")
+    Optional<Long> findBasketIdByCustomerId(long customerId);
+
+    @Query("SELECT b.customerId FROM Basket b ORDER BY b.customerId")
+    List<Long> getAllIds();
+
+    @Query("SELECT b.customerId FROM Basket b WHERE b.customerId > :after ORDER BY b.customerId")
+    List<Long> getIdsAfter(long after, Limit limit);
+
+    // Hibernate clears the BASKET_ITEMS collection table with one set-based statement first
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Basket b WHERE b.customerId IN :customerIds")
+    int deleteAllByCustomerIdIn(Collection<Long> customerIds);
 
-    default void deleteByCustomerId(long customerId){
-        Optional<Basket> basket = findByCustomerId(customerId);
-        basket.ifPresent(this::delete);
+    default void deleteByCustomerId(long customerId) {
+        deleteAllByCustomerIdIn(List.of(customerId));
     }
 }
@@ -0,0 +1,114 @@
+package org.lager.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.lager.cache.InvalidationBus;
+import org.lager.cache.InvalidationBus.Change;
+import org.lager.model.Basket;
+import org.lager.model.BasketItem;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Repository(BasketStore.BACKING_STORE)
+@ConditionalOnProperty(name = "basket.storage", havingValue = "rows", matchIfMissing = true)
+public class BasketRowStore implements BasketStore {
+
+    private final BasketRepository repository;
+    private final SessionFactory sessionFactory;
+    private final InvalidationBus invalidationBus;
+
+    public BasketRowStore(BasketRepository repository, EntityManagerFactory entityManagerFactory,
+                          InvalidationBus invalidationBus) {
+        this.repository = repository;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public Optional<Basket> findByCustomerId(long customerId) {
+        return repository.findByCustomerId(customerId);
+    }
+
+    @Override
+    public Optional<Long> findBasketIdByCustomerId(long customerId) {
+        return repository.findBasketIdByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Long> getAllIds() {
+        return repository.getAllIds();
+    }
+
+    @Override
+    public List<Long> getIdsAfter(long after, Limit limit) {
+        return repository.getIdsAfter(after, limit);
+    }
+
+    // flushed, so that addItem's native upsert sees a newly created basket
+    @Override
+    public Basket save(Basket basket) {
+        Basket saved = repository.saveAndFlush(basket);
+        if (basket.getBasketId() != 0)
+            invalidationBus.publish(InvalidationBus.BASKET_TOPIC, Change.UPDATED, saved.getBasketId());
+        return saved;
+    }
+
+    // loading them first lets the merges below find every basket in the persistence context
+    @Override
+    @Transactional
+    public void saveAll(Collection<Basket> baskets) {
+        Set<Long> existing = repository.findAllById(baskets.stream().map(Basket::getBasketId).toList()).stream()
+                .map(Basket::getBasketId)
+                .collect(Collectors.toSet());
+        repository.saveAll(baskets.stream()
+                .filter(basket -> existing.contains(basket.getBasketId()))
+                .toList());
+        repository.flush();
+        invalidationBus.publish(InvalidationBus.BASKET_TOPIC, Change.UPDATED, existing);
+    }
+
+    @Override
+    public void deleteByCustomerId(long customerId) {
+        repository.deleteByCustomerId(customerId);
+    }
+
+    @Override
+    public int deleteAllByCustomerIdIn(Collection<Long> customerIds) {
+        return repository.deleteAllByCustomerIdIn(customerIds);
+    }
+
+    @Override
+    public BasketItem addItem(long basketId, long productId, int amount) {
+        BasketItem item = repository.addItem(basketId, productId, amount);
+        Runnable evictItems = () -> sessionFactory.getCache().evictCollectionData(Basket.ITEMS_ROLE, basketId);
+        evictItems.run();
+        afterCommit(evictItems);
+        invalidationBus.publish(InvalidationBus.BASKET_TOPIC, Change.UPDATED, basketId);
+        return item;
+    }
+
+    // the native upsert bypasses Hibernate, so cached items are dropped for later reads in this transaction
+    // and once more after the commit, for loads that raced it
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
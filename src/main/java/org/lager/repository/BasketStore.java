@@ -0,0 +1,33 @@
+package org.lager.repository;
+
+import org.lager.model.Basket;
+import org.lager.model.BasketItem;
+import org.springframework.data.domain.Limit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BasketStore {
+    String BACKING_STORE = "basketBackingStore";
+
+
+    Optional<Basket> findByCustomerId(long customerId);
+
+    Optional<Long> findBasketIdByCustomerId(long customerId);
+
+    List<Long> getAllIds();
+
+    List<Long> getIdsAfter(long after, Limit limit);
+
+    Basket save(Basket basket);
+
+    // updates existing baskets only, a basket deleted meanwhile stays deleted
+    void saveAll(Collection<Basket> baskets);
+
+    void deleteByCustomerId(long customerId);
+
+    int deleteAllByCustomerIdIn(Collection<Long> customerIds);
+
+    BasketItem addItem(long basketId, long productId, int amount);
+}
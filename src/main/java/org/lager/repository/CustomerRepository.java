@@ -1,17 +1,32 @@
 package org.lager.repository;
 
 import org.lager.model.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
-    default List<Long> getAllIds() {
-        return findAll().stream()
-                .map(Customer::getCustomerId)
-                .toList();
-    }
+    @Query("SELECT c.customerId FROM Customer c ORDER BY c.customerId")
+    List<Long> getAllIds();
+
+    @Query("SELECT c.customerId FROM Customer c WHERE c.customerId > :after ORDER BY c.customerId")
+    List<Long> getIdsAfter(long after, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.customerId = :customerId")
+    int deleteByCustomerId(long customerId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.customerId IN :customerIds")
+    int deleteAllByCustomerIdIn(Collection<Long> customerIds);
 }
@@ -0,0 +1,17 @@
+package org.lager.repository;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+public final class Databases {
+
+    private Databases() {
+    }
+
+    public static boolean isPostgres(DataSource dataSource) throws MetaDataAccessException {
+        return "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+}
@@ -0,0 +1,66 @@
+package org.lager.repository;
+
+import org.lager.model.OrderItem;
+import org.lager.model.dto.OrderDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Repository
+public class OrderExportRepository {
+    private static final int FETCH_SIZE = 500;
+    private static final String EXPORT_QUERY = """
+            SELECT o.ORDER_ID, o.CUSTOMER_ID, i.PRODUCT_ID, i.AMOUNT
+            FROM ORDERS o JOIN ORDER_ITEMS i ON i.ORDER_ID = o.ORDER_ID
+            ORDER BY o.ORDER_ID""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderExportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    // Postgres honours the fetch size (server-side cursor) only inside a transaction
+    public void forEachOrder(Consumer<OrderDto> consumer) {
+        OrderCollector collector = new OrderCollector(consumer);
+        jdbcTemplate.query(EXPORT_QUERY, collector);
+        collector.emit();
+    }
+
+    private static class OrderCollector implements RowCallbackHandler {
+        private final Consumer<OrderDto> consumer;
+        private final Set<OrderItem> items = new HashSet<>();
+        private long orderId;
+        private long customerId;
+
+        private OrderCollector(Consumer<OrderDto> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            long rowOrderId = resultSet.getLong("ORDER_ID");
+            if (rowOrderId != orderId) {
+                emit();
+                orderId = rowOrderId;
+                customerId = resultSet.getLong("CUSTOMER_ID");
+            }
+            items.add(new OrderItem(resultSet.getLong("PRODUCT_ID"), resultSet.getInt("AMOUNT")));
+        }
+
+        private void emit() {
+            if (items.isEmpty())
+                return;
+            consumer.accept(new OrderDto(orderId, customerId, Set.copyOf(items)));
+            items.clear();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package org.lager.repository;
 
 import org.lager.model.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,9 +11,9 @@ import java.util.List;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    default List<Long> getAllIds() {
-        return findAll().stream()
-                .map(Order::getOrderId)
-                .toList();
-    }
+    @Query("SELECT o.orderId FROM Order o ORDER BY o.orderId")
+    List<Long> getAllIds();
+
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderId > :after ORDER BY o.orderId")
+    List<Long> getIdsAfter(long after, Limit limit);
 }
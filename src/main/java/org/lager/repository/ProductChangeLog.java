@@ -0,0 +1,47 @@
+package org.lager.repository;
+
+import org.lager.model.Product;
+import org.lager.model.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public class ProductChangeLog {
+
+    private final ProductRepository products;
+    private final ProductChangeRepository changes;
+
+    public ProductChangeLog(ProductRepository products, ProductChangeRepository changes) {
+        this.products = products;
+        this.changes = changes;
+    }
+
+    @Transactional
+    public Product save(Product product) {
+        Product saved = products.save(product);
+        record(saved.getProductId(), false);
+        return saved;
+    }
+
+    @Transactional
+    public void deleteById(long productId) {
+        products.findById(productId).ifPresent(product -> {
+            products.delete(product);
+            record(productId, true);
+        });
+    }
+
+    // the counter row stays locked until commit, so versions become visible in order and a reader polling
+    // with the last version it saw never skips a change that was still in flight
+    private void record(long productId, boolean deleted) {
+        changes.incrementCatalogVersion();
+        changes.save(new ProductChange(productId, changes.getCatalogVersion(), deleted));
+    }
+
+    public List<ProductChange> findSince(long since, int limit) {
+        return changes.findByChangeVersionGreaterThanOrderByChangeVersion(since, Limit.of(limit));
+    }
+}
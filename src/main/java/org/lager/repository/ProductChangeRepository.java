@@ -0,0 +1,23 @@
+package org.lager.repository;
+
+import org.lager.model.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    @Modifying
+    @Query(value = "UPDATE CATALOG_VERSION SET VERSION = VERSION + 1", nativeQuery = true)
+    void incrementCatalogVersion();
+
+    @Query(value = "SELECT VERSION FROM CATALOG_VERSION", nativeQuery = true)
+    long getCatalogVersion();
+
+    List<ProductChange> findByChangeVersionGreaterThanOrderByChangeVersion(long since, Limit limit);
+}
@@ -1,7 +1,9 @@
 package org.lager.repository;
 
 import org.lager.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,9 +11,9 @@ import java.util.List;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    default List<Long> getAllIds() {
-        return findAll().stream()
-                .map(Product::getProductId)
-                .toList();
-    }
+    @Query("SELECT p.productId FROM Product p ORDER BY p.productId")
+    List<Long> getAllIds();
+
+    @Query("SELECT p.productId FROM Product p WHERE p.productId > :after ORDER BY p.productId")
+    List<Long> getIdsAfter(long after, Limit limit);
 }
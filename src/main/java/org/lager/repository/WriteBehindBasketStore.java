@@ -0,0 +1,255 @@
+package org.lager.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.lager.cache.InvalidationBus;
+import org.lager.cache.InvalidationBus.Change;
+import org.lager.model.Basket;
+import org.lager.model.BasketItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// keeps edited baskets in memory and writes them to the backing store in groups;
+// creating and deleting a basket is written through at once.
+// Unflushed edits live in one instance only: with several instances, all requests of a customer have to reach
+// the same one (sticky by customer), otherwise a flush overwrites edits made elsewhere and a checkout misses
+// edits another instance has not flushed yet. Clean baskets changed elsewhere are dropped and reloaded.
+@Repository
+@Primary
+@ConditionalOnProperty(name = "basket.write-behind.enabled", havingValue = "true")
+public class WriteBehindBasketStore implements BasketStore {
+    private final static Logger logger = LoggerFactory.getLogger(WriteBehindBasketStore.class);
+
+    private final BasketStore backingStore;
+    private final Map<Long, Pending> byCustomer = new HashMap<>();
+    private final Map<Long, Long> customerByBasket = new HashMap<>();
+    private long edits;
+    private long removals;
+
+    public WriteBehindBasketStore(@Qualifier(BasketStore.BACKING_STORE) BasketStore backingStore,
+                                  InvalidationBus invalidationBus) {
+        this.backingStore = backingStore;
+        invalidationBus.subscribe(InvalidationBus.BASKET_TOPIC, this::changedElsewhere, this::forgetClean);
+        invalidationBus.subscribeChanges(InvalidationBus.CUSTOMER_TOPIC, (change, customerId) -> {
+            if (change == Change.DELETED)
+                forgetChanged(List.of(customerId));
+        }, this::forgetClean);
+    }
+
+    // a dirty basket still wins with its next flush, which is why customers must stick to one instance
+    private synchronized void changedElsewhere(long basketId) {
+        Long customerId = customerByBasket.get(basketId);
+        Pending pending = customerId == null ? null : byCustomer.get(customerId);
+        if (pending == null)
+            return;
+        if (pending.dirty) {
+            logger.warn("WriteBehindBasketStore keeps unflushed edits of {} Basket changed on another instance", basketId);
+            return;
+        }
+        forget(List.of(customerId));
+    }
+
+    private synchronized void forgetClean() {
+        forget(byCustomer.entrySet().stream()
+                .filter(entry -> !entry.getValue().dirty)
+                .map(Map.Entry::getKey)
+                .toList());
+    }
+
+    @Override
+    public Optional<Basket> findByCustomerId(long customerId) {
+        return load(customerId);
+    }
+
+    @Override
+    public Optional<Long> findBasketIdByCustomerId(long customerId) {
+        return load(customerId).map(Basket::getBasketId);
+    }
+
+    // retried when baskets were forgotten meanwhile, as the stored state read may be older than a flush
+    private Optional<Basket> load(long customerId) {
+        while (true) {
+            long seenRemovals;
+            synchronized (this) {
+                Pending pending = byCustomer.get(customerId);
+                if (pending != null)
+                    return Optional.of(pending.copy());
+                seenRemovals = removals;
+            }
+            Optional<Basket> stored = backingStore.findByCustomerId(customerId);
+            synchronized (this) {
+                Pending pending = byCustomer.get(customerId);
+                if (pending != null)
+                    return Optional.of(pending.copy());
+                if (removals == seenRemovals)
+                    return stored.map(basket -> keep(basket, false).copy());
+            }
+        }
+    }
+
+    private Pending keep(Basket basket, boolean dirty) {
+        Pending pending = new Pending(copyOf(basket));
+        pending.dirty = dirty;
+        byCustomer.put(basket.getCustomerId(), pending);
+        customerByBasket.put(basket.getBasketId(), basket.getCustomerId());
+        return pending;
+    }
+
+    @Override
+    public List<Long> getAllIds() {
+        return backingStore.getAllIds();
+    }
+
+    @Override
+    public List<Long> getIdsAfter(long after, Limit limit) {
+        return backingStore.getIdsAfter(after, limit);
+    }
+
+    @Override
+    public Basket save(Basket basket) {
+        if (basket.getBasketId() == 0) {
+            Basket created = backingStore.save(basket);
+            synchronized (this) {
+                keep(created, false);
+            }
+            return created;
+        }
+        synchronized (this) {
+            Pending pending = keep(basket, true);
+            pending.version = ++edits;
+            return pending.copy();
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Basket> baskets) {
+        backingStore.saveAll(baskets);
+        forgetChanged(baskets.stream().map(Basket::getCustomerId).toList());
+    }
+
+    @Override
+    public BasketItem addItem(long basketId, long productId, int amount) {
+        synchronized (this) {
+            Long customerId = customerByBasket.get(basketId);
+            Pending pending = customerId == null ? null : byCustomer.get(customerId);
+            if (pending != null) {
+                pending.basket.insert(productId, amount);
+                pending.dirty = true;
+                pending.version = ++edits;
+                return new BasketItem(productId, pending.basket.getAmountOf(productId));
+            }
+        }
+        return backingStore.addItem(basketId, productId, amount);
+    }
+
+    // pending edits are dropped only once the deletion is committed
+    @Override
+    public void deleteByCustomerId(long customerId) {
+        backingStore.deleteByCustomerId(customerId);
+        afterCommit(() -> forgetChanged(List.of(customerId)));
+    }
+
+    @Override
+    public int deleteAllByCustomerIdIn(Collection<Long> customerIds) {
+        int deleted = backingStore.deleteAllByCustomerIdIn(customerIds);
+        List<Long> forgotten = List.copyOf(customerIds);
+        afterCommit(() -> forgetChanged(forgotten));
+        return deleted;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // a load reading the backing store meanwhile is retried only when a basket was dropped
+    // or the stored baskets changed under it
+    private synchronized void forget(Collection<Long> customerIds) {
+        boolean removed = false;
+        for (Long customerId : customerIds) {
+            Pending pending = byCustomer.remove(customerId);
+            if (pending != null) {
+                customerByBasket.remove(pending.basket.getBasketId());
+                removed = true;
+            }
+        }
+        if (removed)
+            removals++;
+    }
+
+    private synchronized void forgetChanged(Collection<Long> customerIds) {
+        forget(customerIds);
+        removals++;
+    }
+
+    // baskets edited while being written stay dirty for the next flush, all others are forgotten
+    @Scheduled(fixedDelayString = "${basket.write-behind.interval:PT1S}")
+    public void flush() {
+        Map<Long, Long> flushedVersions = new HashMap<>();
+        List<Basket> dirty = new ArrayList<>();
+        synchronized (this) {
+            byCustomer.forEach((customerId, pending) -> {
+                if (pending.dirty) {
+                    dirty.add(pending.copy());
+                    flushedVersions.put(customerId, pending.version);
+                }
+            });
+        }
+        if (!dirty.isEmpty()) {
+            backingStore.saveAll(dirty);
+            logger.debug("WriteBehindBasketStore flushed {} Baskets", dirty.size());
+        }
+        synchronized (this) {
+            List<Long> written = byCustomer.entrySet().stream()
+                    .filter(entry -> !entry.getValue().dirty
+                            || Objects.equals(flushedVersions.get(entry.getKey()), entry.getValue().version))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            forget(written);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        logger.info("WriteBehindBasketStore flushes pending Baskets before shutdown");
+        flush();
+    }
+
+    private static Basket copyOf(Basket basket) {
+        return new Basket(basket.getBasketId(), basket.getCustomerId(), basket.getItems().stream()
+                .collect(Collectors.toMap(BasketItem::productId, Function.identity())));
+    }
+
+    private static class Pending {
+        private final Basket basket;
+        private boolean dirty;
+        private long version;
+
+        private Pending(Basket basket) {
+            this.basket = basket;
+        }
+
+        private Basket copy() {
+            return copyOf(basket);
+        }
+    }
+}
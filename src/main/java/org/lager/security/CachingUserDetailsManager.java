@@ -0,0 +1,85 @@
+package org.lager.security;
+
+import org.lager.cache.BoundedCache;
+import org.lager.cache.CacheStats;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.UserDetailsManager;
+
+import java.util.Optional;
+
+public class CachingUserDetailsManager implements UserDetailsManager {
+
+    private final UserDetailsManager delegate;
+    private final BoundedCache<String, UserDetails> cache;
+
+    public CachingUserDetailsManager(UserDetailsManager delegate, BoundedCache<String, UserDetails> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    // callers get a copy of their own, the authentication manager erases the password of the one it is handed
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return findUser(username)
+                .map(CachingUserDetailsManager::copyOf)
+                .orElseThrow(() -> new UsernameNotFoundException(username));
+    }
+
+    // unknown users are not cached, so a user created on another instance is found right away
+    @Override
+    public boolean userExists(String username) {
+        return findUser(username).isPresent();
+    }
+
+    private Optional<UserDetails> findUser(String username) {
+        return cache.get(username, key -> {
+            try {
+                return Optional.of(copyOf(delegate.loadUserByUsername(key)));
+            } catch (UsernameNotFoundException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    @Override
+    public void createUser(UserDetails user) {
+        delegate.createUser(user);
+        evict(user.getUsername());
+    }
+
+    @Override
+    public void updateUser(UserDetails user) {
+        delegate.updateUser(user);
+        evict(user.getUsername());
+    }
+
+    @Override
+    public void deleteUser(String username) {
+        delegate.deleteUser(username);
+        evict(username);
+    }
+
+    @Override
+    public void changePassword(String oldPassword, String newPassword) {
+        Authentication currentUser = SecurityContextHolder.getContext().getAuthentication();
+        delegate.changePassword(oldPassword, newPassword);
+        if (currentUser != null)
+            evict(currentUser.getName());
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    private static UserDetails copyOf(UserDetails user) {
+        return User.withUserDetails(user).build();
+    }
+}
@@ -0,0 +1,13 @@
+package org.lager.security;
+
+import io.jsonwebtoken.Jwts;
+
+import javax.crypto.SecretKey;
+import java.util.UUID;
+
+public record JwtKey(String kid, SecretKey secret, long createdAt) {
+
+    public static JwtKey generate(long createdAt) {
+        return new JwtKey(UUID.randomUUID().toString(), Jwts.SIG.HS256.key().build(), createdAt);
+    }
+}
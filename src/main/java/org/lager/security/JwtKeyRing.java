@@ -0,0 +1,106 @@
+package org.lager.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+    private final static Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final String SELECT_ALL = "SELECT KID, SECRET, CREATED_AT FROM JWT_KEYS";
+    private static final String INSERT = "INSERT INTO JWT_KEYS (KID, SECRET, CREATED_AT) VALUES (?, ?, ?)";
+    private static final String DELETE = "DELETE FROM JWT_KEYS WHERE KID = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long rotationMillis;
+    private final long graceMillis;
+    private volatile Ring ring = new Ring(Map.of(), null);
+
+    // an instance picks up a new key at its next refresh, two refresh intervals cover one that is running late
+    public JwtKeyRing(JdbcTemplate jdbcTemplate,
+                      @Value("${security.jwt.key-rotation:P1D}") Duration rotation,
+                      @Value("${security.jwt.key-refresh:PT1M}") Duration refresh) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rotationMillis = rotation.toMillis();
+        this.graceMillis = refresh.multipliedBy(2).toMillis();
+    }
+
+    public JwtKey signingKey() {
+        if (ring.signing() == null)
+            refresh();
+        return ring.signing();
+    }
+
+    // an unknown kid finds no key, so the token is rejected without trying every key
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid == null)
+            return null;
+        JwtKey key = ring.byKid().get(kid);
+        return key == null ? null : key.secret();
+    }
+
+    // a new key is published a grace period before it signs and kept until every token it signed has expired,
+    // so any instance verifies the tokens of any other and rotating needs no downtime
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.jwt.key-refresh:PT1M}")
+    public synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        List<JwtKey> keys = new ArrayList<>(jdbcTemplate.query(SELECT_ALL, (rs, rowNum) -> new JwtKey(rs.getString(1),
+                Keys.hmacShaKeyFor(Base64.getDecoder().decode(rs.getString(2))), rs.getLong(3))));
+        keys.sort(Comparator.comparingLong(JwtKey::createdAt).thenComparing(JwtKey::kid).reversed());
+        if (keys.isEmpty() || keys.get(0).createdAt() <= now - rotationMillis) {
+            JwtKey next = JwtKey.generate(now);
+            logger.info("JwtKeyRing publishes key {}", next.kid());
+            jdbcTemplate.update(INSERT, next.kid(), Base64.getEncoder().encodeToString(next.secret().getEncoded()), now);
+            keys.add(0, next);
+        }
+        long retiredBefore = now - graceMillis - JwtTokenProvider.VALID_DURATION.toMillis();
+        for (int i = 1; i < keys.size(); i++) {
+            if (keys.get(i - 1).createdAt() + graceMillis <= retiredBefore) {
+                List<JwtKey> retired = keys.subList(i, keys.size());
+                retired.forEach(key -> {
+                    logger.info("JwtKeyRing retires key {}", key.kid());
+                    jdbcTemplate.update(DELETE, key.kid());
+                });
+                retired.clear();
+                break;
+            }
+        }
+        load(keys, now);
+    }
+
+    // the newest key that every instance knows signs, a fresh ring has only its first key to offer
+    void load(Collection<JwtKey> keys, long now) {
+        Map<String, JwtKey> byKid = keys.stream().collect(Collectors.toUnmodifiableMap(JwtKey::kid, Function.identity()));
+        JwtKey newest = keys.stream().max(Comparator.comparingLong(JwtKey::createdAt)).orElse(null);
+        JwtKey signing = keys.stream()
+                .filter(key -> key.createdAt() + graceMillis <= now)
+                .max(Comparator.comparingLong(JwtKey::createdAt))
+                .orElse(newest);
+        ring = new Ring(byKid, signing);
+    }
+
+    private record Ring(Map<String, JwtKey> byKid, JwtKey signing) {
+    }
+}
@@ -1,56 +1,109 @@
 package org.lager.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.provisioning.UserDetailsManager;
+import org.lager.cache.BoundedCache;
+import org.lager.cache.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
+    private final static Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    private final static int VALID_DURATION = 900_000; // 15 min
-    private final static Key KEY = Jwts.SIG.HS256.key().build();
+    public final static Duration VALID_DURATION = Duration.ofMinutes(15);
+    private final static String AUTHORITIES_CLAIM = "authorities";
 
-    private final UserDetailsManager userDetailsManager;
+    private final TokenRevocations revocations;
+    private final BoundedCache<String, VerifiedToken> cache;
+    private final JwtKeyRing keyRing;
+    // immutable and thread-safe, so one parser serves every request; it finds the key by the token's kid
+    private final JwtParser parser;
 
-    public JwtTokenProvider(UserDetailsManager userDetailsManager) {
-        this.userDetailsManager = userDetailsManager;
+    public JwtTokenProvider(TokenRevocations revocations, BoundedCache<String, VerifiedToken> tokenCache, JwtKeyRing keyRing) {
+        this.revocations = revocations;
+        this.cache = tokenCache;
+        this.keyRing = keyRing;
+        this.parser = Jwts.parser().keyLocator(keyRing).build();
     }
 
-    public Optional<UserDetails> getUser(String token) {
-        if (token == null || token.isBlank() || isTokenExpired(token))
+    // the signed claims carry everything needed, so authenticating a request queries no USERS or AUTHORITIES;
+    // expiry and revocations are checked on every hit, as a cached token outlives neither
+    public Optional<Authentication> getAuthentication(String token) {
+        if (token == null || token.isBlank())
             return Optional.empty();
-        String username = getUsernameFromToken(token);
-        if (!userDetailsManager.userExists(username))
-            return Optional.empty();
-        return Optional.of(userDetailsManager.loadUserByUsername(username));
+        return cache.get(keyOf(token), key -> verify(token))
+                .filter(verified -> verified.expiration().getTime() > System.currentTimeMillis())
+                .filter(verified -> !revocations.isRevoked(verified.username(), verified.issuedAt()))
+                .map(VerifiedToken::authentication);
+    }
+
+    public void evict(String username) {
+        cache.invalidateIf(verified -> verified.username().equals(username));
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
     }
 
-    public String generateToken(String username) {
+    public String generateToken(String username, Collection<? extends GrantedAuthority> authorities) {
+        JwtKey key = keyRing.signingKey();
         return Jwts.builder()
+                .header().keyId(key.kid()).and()
                 .subject(username)
+                .claim(AUTHORITIES_CLAIM, authorities.stream().map(GrantedAuthority::getAuthority).toList())
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + VALID_DURATION))
-                .signWith(KEY)
+                .expiration(new Date(System.currentTimeMillis() + VALID_DURATION.toMillis()))
+                .signWith(key.secret())
                 .compact();
     }
 
-    private String getUsernameFromToken(String token) {
-        return getClaims(token).getSubject();
+    private Optional<VerifiedToken> verify(String token) {
+        return getClaims(token)
+                .filter(claims -> claims.getSubject() != null)
+                .map(claims -> new VerifiedToken(toAuthentication(claims), claims.getIssuedAt(), claims.getExpiration()));
+    }
+
+    // the raw bearer token is kept out of memory, the digest also bounds the size of a key
+    private static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expiration = getClaims(token).getExpiration();
-        return expiration.before(new Date());
+    // a single pass verifies the signature, rejects an expired token and reads the claims
+    private Optional<Claims> getClaims(String token) {
+        try {
+            return Optional.of(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException e) {
+            logger.debug("JwtTokenProvider rejected a token: {}", e.getMessage());
+            return Optional.empty();
+        }
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parser().verifyWith((SecretKey) KEY).build().parseSignedClaims(token).getPayload();
+    private static Authentication toAuthentication(Claims claims) {
+        List<?> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        List<String> names = authorities == null ? List.of() : authorities.stream().map(String::valueOf).toList();
+        return UsernamePasswordAuthenticationToken.authenticated(claims.getSubject(), null, AuthorityUtils.createAuthorityList(names));
     }
 }
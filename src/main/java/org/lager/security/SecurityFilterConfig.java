@@ -1,5 +1,6 @@
 package org.lager.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -25,9 +26,12 @@ public class SecurityFilterConfig {
         http.csrf((csrf) -> csrf. disable());
         http.addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
         http.authorizeHttpRequests((requests) -> {
+            requests.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
             requests.requestMatchers(HttpMethod.GET,"/login").permitAll();
+            requests.requestMatchers(HttpMethod.GET, "/product/cache-stats", "/product/lookup-stats", "/order/lookup-stats").hasRole("ADMIN");
             requests.requestMatchers(HttpMethod.GET, "/product/**").permitAll();
             requests.requestMatchers("/user/**").hasRole("ADMIN");
+            requests.requestMatchers("/cache/**").hasRole("ADMIN");
             requests.anyRequest().authenticated();});//.hasAnyRole("USER", "ADMIN");});
         http.httpBasic(withDefaults());
         return http.build();
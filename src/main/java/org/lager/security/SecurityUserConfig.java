@@ -1,14 +1,15 @@
 package org.lager.security;
 
+import org.lager.cache.BoundedCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.JdbcUserDetailsManager;
-import org.springframework.security.provisioning.UserDetailsManager;
 
 import javax.sql.DataSource;
 
@@ -16,9 +17,13 @@ import javax.sql.DataSource;
 @EnableWebSecurity
 public class SecurityUserConfig {
 
+    // users deleted on another instance reach the cache with their token revocation
     @Bean
-    public UserDetailsManager jdbcUserDetailsManager(DataSource dataSource) {
-        return new JdbcUserDetailsManager(dataSource);
+    public CachingUserDetailsManager userDetailsManager(DataSource dataSource, BoundedCache<String, UserDetails> userCache,
+                                                        TokenRevocations tokenRevocations) {
+        CachingUserDetailsManager userDetailsManager = new CachingUserDetailsManager(new JdbcUserDetailsManager(dataSource), userCache);
+        tokenRevocations.addListener(userDetailsManager::evict);
+        return userDetailsManager;
     }
 
     @Bean
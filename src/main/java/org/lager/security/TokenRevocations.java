@@ -0,0 +1,71 @@
+package org.lager.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Component
+public class TokenRevocations {
+    private final static Logger logger = LoggerFactory.getLogger(TokenRevocations.class);
+    private static final String INSERT = "INSERT INTO TOKEN_REVOCATIONS (USERNAME, REVOKED_AT) VALUES (?, ?)";
+    private static final String SELECT_RECENT = "SELECT USERNAME, MAX(REVOKED_AT) FROM TOKEN_REVOCATIONS WHERE REVOKED_AT > ? GROUP BY USERNAME";
+    private static final String DELETE_EXPIRED = "DELETE FROM TOKEN_REVOCATIONS WHERE REVOKED_AT <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    public TokenRevocations(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void revoke(String username) {
+        long now = System.currentTimeMillis();
+        logger.info("TokenRevocations revokes tokens of {} issued until {}", username, now);
+        jdbcTemplate.update(INSERT, username, now);
+        record(username, now);
+    }
+
+    // listeners hear of every revocation, whichever instance made it
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    // iat has a precision of seconds, so a token issued in the second of a revocation is rejected as well
+    public boolean isRevoked(String username, Date issuedAt) {
+        Long revoked = revokedAt.get(username);
+        return revoked != null && (issuedAt == null || issuedAt.getTime() <= revoked);
+    }
+
+    // revocations of other instances arrive with the next refresh, entries are dropped once every token they
+    // could reject has expired anyway
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.revocation.refresh:PT10S}")
+    public void refresh() {
+        long expired = System.currentTimeMillis() - JwtTokenProvider.VALID_DURATION.toMillis();
+        jdbcTemplate.query(SELECT_RECENT, rs -> {
+            record(rs.getString(1), rs.getLong(2));
+        }, expired);
+        revokedAt.values().removeIf(revoked -> revoked <= expired);
+        jdbcTemplate.update(DELETE_EXPIRED, expired);
+    }
+
+    private void record(String username, long revoked) {
+        Long before = revokedAt.get(username);
+        if (before != null && before >= revoked)
+            return;
+        revokedAt.merge(username, revoked, Math::max);
+        listeners.forEach(listener -> listener.accept(username));
+    }
+}
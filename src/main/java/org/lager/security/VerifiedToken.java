@@ -0,0 +1,12 @@
+package org.lager.security;
+
+import org.springframework.security.core.Authentication;
+
+import java.util.Date;
+
+public record VerifiedToken(Authentication authentication, Date issuedAt, Date expiration) {
+
+    public String username() {
+        return authentication.getName();
+    }
+}
@@ -2,13 +2,25 @@ package org.lager.service;
 
 import org.lager.exception.NoSuchBasketException;
 import org.lager.model.Basket;
+import org.lager.model.BasketItem;
 import org.lager.model.dto.BasketDto;
-import org.lager.repository.BasketRepository;
+import org.lager.model.dto.IdPageDto;
+import org.lager.repository.BasketStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class BasketService {
@@ -16,16 +28,20 @@ public class BasketService {
 
     private final ProductService productService;
     private final CustomerService customerService;
-    private final BasketRepository repository;
+    private final BasketStore store;
+    private final TransactionTemplate newTransaction;
 
-    public BasketService(BasketRepository repository, CustomerService customerService, ProductService productService) {
-        this.repository = repository;
+    public BasketService(BasketStore store, CustomerService customerService, ProductService productService,
+                         PlatformTransactionManager transactionManager) {
+        this.store = store;
         this.customerService = customerService;
         this.productService = productService;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     private Optional<Basket> find(long customerId) {
-        return repository.findByCustomerId(customerId);
+        return store.findByCustomerId(customerId);
     }
 
     public BasketDto get(long customerId) {
@@ -34,8 +50,30 @@ public class BasketService {
                 .orElse(new BasketDto(customerId, Set.of()));
     }
 
+    // items are upserted without touching the Basket row, so the ETag digests the content instead of a version
+    public String getETag(BasketDto basket) {
+        return eTagOf(basket.items().stream()
+                .collect(Collectors.toMap(BasketItem::productId, BasketItem::amount)));
+    }
+
+    static String eTagOf(Map<Long, Integer> content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<Long, Integer> item : new TreeMap<>(content).entrySet())
+                digest.update((item.getKey() + ":" + item.getValue() + "\n").getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public List<Long> getAllIds() {
-        return repository.getAllIds();
+        return store.getAllIds();
+    }
+
+    public IdPageDto getIds(long after, int limit) {
+        IdPageDto.validateLimit(limit);
+        return IdPageDto.of(store.getIdsAfter(after, Limit.of(limit + 1)), limit);
     }
 
     public Map<Long, Integer> getContentOfBasket(long customerId) {
@@ -46,7 +84,7 @@ public class BasketService {
 
     public void dropBasket(long customerId) {
         logger.info("BasketService empties {} Basket", customerId);
-        repository.deleteByCustomerId(customerId);
+        store.deleteByCustomerId(customerId);
     }
 
     public BasketDto removeFromBasket(long customerId, long productId) {
@@ -54,23 +92,32 @@ public class BasketService {
         Basket basket = find(customerId)
                 .orElseThrow(() -> new NoSuchBasketException(customerId));
         basket.remove(productId);
-        return new BasketDto(repository.save(basket));
+        return new BasketDto(store.save(basket));
     }
 
-    public BasketDto addToBasket(long customerId, long productId, int amount) {
+    @Transactional
+    public BasketItem addToBasket(long customerId, long productId, int amount) {
         logger.debug("BasketService starts to add {} Product to {} Basket", productId, customerId);
         productService.validatePresence(productId);
-        Basket basket = find(customerId)
+        long basketId = store.findBasketIdByCustomerId(customerId)
                 .orElseGet(() -> createBasket(customerId));
-        basket.insert(productId, amount);
+        BasketItem item = store.addItem(basketId, productId, amount);
         logger.debug("BasketService finished to add {} Product to {} Basket", productId, customerId);
-        return new BasketDto(repository.save(basket));
+        return item;
     }
 
-    private Basket createBasket(long customerId) {
+    // a concurrent first addition may create the basket as well; the unique CUSTOMER_ID index rejects the second
+    // insert in a transaction of its own, so that this one can still read the winner's basket and go on
+    private long createBasket(long customerId) {
         customerService.validatePresence(customerId);
-        Basket newBasket = new Basket(customerId);
-        logger.info("BasketService created new empty Basket with ID {}", customerId);
-        return newBasket;
+        try {
+            Basket newBasket = newTransaction.execute(status -> store.save(new Basket(customerId)));
+            logger.info("BasketService created new empty Basket with ID {}", customerId);
+            return newBasket.getBasketId();
+        } catch (DataIntegrityViolationException e) {
+            logger.info("BasketService found {} Basket created concurrently", customerId);
+            return store.findBasketIdByCustomerId(customerId)
+                    .orElseThrow(() -> e);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package org.lager.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.lager.cache.InvalidationBus;
+import org.lager.model.Basket;
+import org.lager.model.Customer;
+import org.lager.model.Product;
+import org.lager.model.dto.CacheRegionDto;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+// evicts the second-level cache entries changed on other instances and reports the regions' hit ratios
+@Service
+public class CacheRegionService {
+
+    private final SessionFactory sessionFactory;
+
+    public CacheRegionService(EntityManagerFactory entityManagerFactory, InvalidationBus invalidationBus) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        invalidationBus.subscribe(InvalidationBus.PRODUCT_TOPIC,
+                id -> cache().evictEntityData(Product.class, id), () -> cache().evictEntityData(Product.class));
+        invalidationBus.subscribe(InvalidationBus.CUSTOMER_TOPIC,
+                id -> cache().evictEntityData(Customer.class, id), () -> cache().evictEntityData(Customer.class));
+        invalidationBus.subscribe(InvalidationBus.BASKET_TOPIC,
+                id -> cache().evictCollectionData(Basket.ITEMS_ROLE, id), () -> cache().evictCollectionData(Basket.ITEMS_ROLE));
+    }
+
+    private Cache cache() {
+        return sessionFactory.getCache();
+    }
+
+    public List<CacheRegionDto> getRegionStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> new CacheRegionDto(statistics.getDomainDataRegionStatistics(region)))
+                .toList();
+    }
+}
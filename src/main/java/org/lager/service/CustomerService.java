@@ -1,37 +1,71 @@
 package org.lager.service;
 
+import org.lager.cache.IdBitmap;
+import org.lager.cache.InvalidationBus;
+import org.lager.cache.InvalidationBus.Change;
 import org.lager.exception.NoSuchCustomerException;
 import org.lager.model.Customer;
 import org.lager.model.dto.CustomerDto;
-import org.lager.repository.BasketRepository;
+import org.lager.model.dto.IdPageDto;
+import org.lager.repository.BasketStore;
 import org.lager.repository.CustomerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 
 @Service
 public class CustomerService {
     private final static Logger logger = LoggerFactory.getLogger(CustomerService.class);
+    private final static int DELETE_CHUNK_SIZE = 1000;
 
     private final CustomerRepository repository;
-    private final BasketRepository basketRepository;
+    private final BasketStore basketStore;
+    private final IdBitmap ids;
+    private final InvalidationBus invalidationBus;
 
-    public CustomerService(CustomerRepository repository, BasketRepository basketRepository) {
+    public CustomerService(CustomerRepository repository, BasketStore basketStore, InvalidationBus invalidationBus) {
         this.repository = repository;
-        this.basketRepository = basketRepository;
+        this.basketStore = basketStore;
+        this.ids = new IdBitmap(repository::getAllIds);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribeChanges(InvalidationBus.CUSTOMER_TOPIC, this::changed, ids::reload);
+    }
+
+    private void changed(Change change, long customerId) {
+        switch (change) {
+            case CREATED -> ids.add(customerId);
+            case DELETED -> ids.remove(customerId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIds() {
+        ids.reload();
     }
 
     public List<Long> getAllIds() {
-        return repository.getAllIds();
+        return ids.toList();
+    }
+
+    public IdPageDto getIds(long after, int limit) {
+        IdPageDto.validateLimit(limit);
+        return IdPageDto.of(repository.getIdsAfter(after, Limit.of(limit + 1)), limit);
     }
 
     public CustomerDto create(String newCustomerName) {
         logger.debug("CustomerService starts to insert new Customer with {} name", newCustomerName);
         Customer newCustomer = new Customer(newCustomerName);
         newCustomer = repository.save(newCustomer);
+        ids.add(newCustomer.getCustomerId());
+        invalidationBus.publish(InvalidationBus.CUSTOMER_TOPIC, Change.CREATED, newCustomer.getCustomerId());
         logger.debug("CustomerService finished to insert new {} Customer", newCustomer.getCustomerId());
         return new CustomerDto(newCustomer);
     }
@@ -46,16 +80,45 @@ public class CustomerService {
                 .orElseThrow(() -> new NoSuchCustomerException(customerId));
     }
 
+    // the entity comes from the second-level cache, so answering a conditional GET builds no DTO
+    public String getETag(long customerId) {
+        return find(customerId)
+                .map(customer -> Long.toString(customer.getVersion()))
+                .orElseThrow(() -> new NoSuchCustomerException(customerId));
+    }
+
+    // a miss falls back to the DB, as the Customer may have been created by another instance
     public void validatePresence(long customerId) {
+        if (ids.contains(customerId))
+            return;
+        long removals = ids.removals();
         find(customerId)
                 .orElseThrow(() -> new NoSuchCustomerException(customerId));
+        ids.addUnlessRemovedSince(customerId, removals);
     }
 
     @Transactional
     public void delete(long customerId) {
         logger.info("CustomerService deletes {} Customer", customerId);
-        basketRepository.deleteByCustomerId(customerId);
-        repository.deleteById(customerId);
+        basketStore.deleteByCustomerId(customerId);
+        repository.deleteByCustomerId(customerId);
+        afterCommit(() -> ids.remove(customerId));
+        invalidationBus.publish(InvalidationBus.CUSTOMER_TOPIC, Change.DELETED, customerId);
+    }
+
+    @Transactional
+    public int delete(Collection<Long> customerIds) {
+        logger.info("CustomerService deletes {} Customers", customerIds.size());
+        List<Long> distinctIds = customerIds.stream().filter(Objects::nonNull).distinct().toList();
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size()));
+            basketStore.deleteAllByCustomerIdIn(chunk);
+            deleted += repository.deleteAllByCustomerIdIn(chunk);
+        }
+        afterCommit(() -> ids.removeAll(distinctIds));
+        invalidationBus.publish(InvalidationBus.CUSTOMER_TOPIC, Change.DELETED, distinctIds);
+        return deleted;
     }
 
     public CustomerDto rename(long customerId, String customerNewName) {
@@ -63,6 +126,22 @@ public class CustomerService {
         Customer customer = find(customerId)
                 .orElseThrow(() -> new NoSuchCustomerException(customerId));
         customer.setCustomerName(customerNewName);
-        return new CustomerDto(repository.save(customer));
+        CustomerDto renamed = new CustomerDto(repository.save(customer));
+        invalidationBus.publish(InvalidationBus.CUSTOMER_TOPIC, Change.UPDATED, customerId);
+        return renamed;
+    }
+
+    // a lookup still reading the deleted rows cannot put the IDs back, see validatePresence
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
-}
\ No newline at end of file
+}
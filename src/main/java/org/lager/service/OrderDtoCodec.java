@@ -0,0 +1,38 @@
+package org.lager.service;
+
+import org.lager.model.OrderItem;
+import org.lager.model.dto.OrderDto;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+final class OrderDtoCodec {
+    private static final int HEADER_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int ITEM_BYTES = Long.BYTES + Integer.BYTES;
+
+    private OrderDtoCodec() {
+    }
+
+    static byte[] encode(OrderDto order) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + order.items().size() * ITEM_BYTES);
+        buffer.putLong(order.orderId());
+        buffer.putLong(order.customerId());
+        buffer.putInt(order.items().size());
+        for (OrderItem item : order.items()) {
+            buffer.putLong(item.productId());
+            buffer.putInt(item.amount());
+        }
+        return buffer.array();
+    }
+
+    static OrderDto decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long orderId = buffer.getLong();
+        long customerId = buffer.getLong();
+        int size = buffer.getInt();
+        OrderItem[] items = new OrderItem[size];
+        for (int i = 0; i < size; i++)
+            items[i] = new OrderItem(buffer.getLong(), buffer.getInt());
+        return new OrderDto(orderId, customerId, Set.of(items));
+    }
+}
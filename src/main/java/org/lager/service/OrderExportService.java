@@ -0,0 +1,44 @@
+package org.lager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.lager.model.dto.OrderDto;
+import org.lager.repository.OrderExportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@Service
+public class OrderExportService {
+    private final static Logger logger = LoggerFactory.getLogger(OrderExportService.class);
+    private final static int LINE_SEPARATOR = '\n';
+
+    private final OrderExportRepository repository;
+    private final ObjectWriter writer;
+
+    public OrderExportService(OrderExportRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.writer = objectMapper.writerFor(OrderDto.class);
+    }
+
+    @Transactional(readOnly = true)
+    public void export(OutputStream outputStream) {
+        logger.info("OrderExportService starts to export all Orders");
+        repository.forEachOrder(order -> write(order, outputStream));
+        logger.info("OrderExportService finished to export all Orders");
+    }
+
+    private void write(OrderDto order, OutputStream outputStream) {
+        try {
+            outputStream.write(writer.writeValueAsBytes(order));
+            outputStream.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.lager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered 64-bit IDs: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node ID and a 12-bit sequence
+ * per millisecond. Every node needs its own {@code order.id.node-id}, nothing else is shared between nodes.
+ */
+@Component
+public class OrderIdGenerator {
+    private final static Logger logger = LoggerFactory.getLogger(OrderIdGenerator.class);
+
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    @Autowired
+    public OrderIdGenerator(@Value("${order.id.node-id:-1}") long nodeId) {
+        this(nodeId < 0 ? randomNodeId() : nodeId, System::currentTimeMillis);
+    }
+
+    OrderIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID)
+            throw new IllegalArgumentException("Order ID node-id has to be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        this.nodeId = nodeId;
+        this.clock = clock;
+        logger.info("OrderIdGenerator uses node-id {}", nodeId);
+    }
+
+    private static long randomNodeId() {
+        logger.warn("order.id.node-id is not set, a random one is used; set it explicitly when running several nodes");
+        return ThreadLocalRandom.current().nextLong(MAX_NODE_ID + 1);
+    }
+
+    public synchronized long nextId() {
+        long timestamp = Math.max(clock.getAsLong(), lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0)
+                timestamp++;
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -1,14 +1,21 @@
 package org.lager.service;
 
+import org.lager.cache.LookupStats;
+import org.lager.cache.OffHeapCache;
+import org.lager.cache.SingleFlight;
 import org.lager.exception.NoSuchOrderException;
 import org.lager.model.Order;
 import org.lager.model.OrderItem;
+import org.lager.model.dto.IdPageDto;
 import org.lager.model.dto.OrderDto;
 import org.lager.repository.OrderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,34 +28,74 @@ public class OrderService {
 
     private final OrderRepository repository;
     private final BasketService basketService;
+    private final OrderIdGenerator idGenerator;
+    private final OffHeapCache cache;
+    private final SingleFlight<Long, Optional<OrderDto>> lookups = new SingleFlight<>();
 
-    public OrderService(OrderRepository repository, BasketService basketService) {
+    public OrderService(OrderRepository repository, BasketService basketService, OrderIdGenerator idGenerator,
+                        OffHeapCache cache) {
         this.repository = repository;
         this.basketService = basketService;
+        this.idGenerator = idGenerator;
+        this.cache = cache;
     }
 
     private Optional<Order> find(long orderId) {
         return repository.findById(orderId);
     }
 
+    // orders never change, so cached ones never need invalidation
     public OrderDto get(long orderId) throws NoSuchOrderException {
-        return find(orderId)
-                .map(OrderDto::new)
+        Optional<byte[]> cached = cache.get(orderId);
+        if (cached.isPresent())
+            return OrderDtoCodec.decode(cached.get());
+        return lookups.load(orderId, this::loadAndCache)
                 .orElseThrow(() -> new NoSuchOrderException(orderId));
     }
 
+    private Optional<OrderDto> loadAndCache(long orderId) {
+        Optional<OrderDto> order = find(orderId).map(OrderDto::new);
+        order.ifPresent(found -> cache.put(orderId, OrderDtoCodec.encode(found)));
+        return order;
+    }
+
+    public LookupStats getLookupStats() {
+        return lookups.stats();
+    }
+
     public List<Long> getAllIds() {
         return repository.getAllIds();
     }
 
+    public IdPageDto getIds(long after, int limit) {
+        IdPageDto.validateLimit(limit);
+        return IdPageDto.of(repository.getIdsAfter(after, Limit.of(limit + 1)), limit);
+    }
+
     @Transactional
     public OrderDto order(long customerId) {
         logger.debug("OrderService starts to order {} Basket", customerId);
         Set<OrderItem> items = getOrderItemsFromBasket(customerId);
-        Order newOrder = repository.save(new Order(customerId, items));
+        Order newOrder = repository.save(new Order(idGenerator.nextId(), customerId, items));
+        logger.info("New Order {} has been created for {} Customer", newOrder.getOrderId(), customerId);
         basketService.dropBasket(customerId);
         logger.debug("OrderService finished to order {} Basket", customerId);
-        return new OrderDto(newOrder);
+        OrderDto order = new OrderDto(newOrder);
+        cacheAfterCommit(order);
+        return order;
+    }
+
+    private void cacheAfterCommit(OrderDto order) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(order.orderId(), OrderDtoCodec.encode(order));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(order.orderId(), OrderDtoCodec.encode(order));
+            }
+        });
     }
 
     private Set<OrderItem> getOrderItemsFromBasket(long customerId) {
@@ -1,16 +1,35 @@
 package org.lager.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.lager.cache.BoundedCache;
+import org.lager.cache.CacheStats;
+import org.lager.cache.IdBitmap;
+import org.lager.cache.InvalidationBus;
+import org.lager.cache.InvalidationBus.Change;
+import org.lager.cache.LookupStats;
+import org.lager.cache.SingleFlight;
 import org.lager.exception.NoSuchProductException;
 import org.lager.exception.ProductIllegalIdException;
 import org.lager.exception.ProductIllegalNameException;
 import org.lager.exception.ProductIllegalPriceException;
 import org.lager.model.Product;
+import org.lager.model.ProductChange;
+import org.lager.model.dto.IdPageDto;
+import org.lager.model.dto.ProductChangesDto;
 import org.lager.model.dto.ProductDto;
+import org.lager.model.dto.ProductJson;
+import org.lager.repository.ProductChangeLog;
 import org.lager.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,14 +38,55 @@ public class ProductService {
     private final static Logger logger = LoggerFactory.getLogger(ProductService.class);
 
     private final ProductRepository repository;
+    private final ProductChangeLog changeLog;
+    private final BoundedCache<Long, ProductDto> cache;
+    private final BoundedCache<Long, ProductJson> jsonCache;
+    private final ObjectWriter writer;
+    private final IdBitmap ids;
+    private final InvalidationBus invalidationBus;
+    private final SingleFlight<Long, Optional<ProductDto>> lookups = new SingleFlight<>();
 
-    public ProductService(ProductRepository repository) {
+    public ProductService(ProductRepository repository, ProductChangeLog changeLog, BoundedCache<Long, ProductDto> cache,
+                          BoundedCache<Long, ProductJson> jsonCache, ObjectMapper objectMapper, InvalidationBus invalidationBus) {
         this.repository = repository;
+        this.changeLog = changeLog;
+        this.cache = cache;
+        this.jsonCache = jsonCache;
+        this.writer = objectMapper.writerFor(ProductDto.class);
+        this.ids = new IdBitmap(repository::getAllIds);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribeChanges(InvalidationBus.PRODUCT_TOPIC, this::changed, this::evictAll);
+    }
+
+    private void changed(Change change, long productId) {
+        switch (change) {
+            case CREATED -> ids.add(productId);
+            case DELETED -> ids.remove(productId);
+        }
+        evict(productId);
+    }
+
+    private void evict(long productId) {
+        cache.invalidate(productId);
+        jsonCache.invalidate(productId);
+    }
+
+    private void evictAll() {
+        cache.invalidateAll();
+        jsonCache.invalidateAll();
+        ids.reload();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIds() {
+        ids.reload();
     }
 
     public ProductDto create(String newProductName) {
         logger.debug("ProductService starts to insert new Product with {} name", newProductName);
-        Product newProduct = repository.save(new Product(newProductName, 0.0));
+        Product newProduct = changeLog.save(new Product(newProductName, 0.0));
+        ids.add(newProduct.getProductId());
+        invalidationBus.publish(InvalidationBus.PRODUCT_TOPIC, Change.CREATED, newProduct.getProductId());
         logger.debug("ProductService finished to insert new {} Product", newProduct.getProductId());
         return new ProductDto(newProduct);
     }
@@ -35,24 +95,82 @@ public class ProductService {
         return repository.findById(productId);
     }
 
+    private Optional<ProductDto> findCached(long productId) {
+        return cache.get(productId, id -> lookups.load(id, missed -> find(missed).map(ProductDto::new)));
+    }
+
     public ProductDto get(long productId) {
-        return find(productId)
-                .map(ProductDto::new)
+        return findCached(productId)
                 .orElseThrow(() -> new NoSuchProductException(productId));
     }
 
+    // rendered once and written to responses as is, until the Product changes
+    public ProductJson getJson(long productId) {
+        return jsonCache.get(productId, id -> findCached(id).map(this::render))
+                .orElseThrow(() -> new NoSuchProductException(productId));
+    }
+
+    private ProductJson render(ProductDto product) {
+        try {
+            return new ProductJson(Long.toString(product.version()), writer.writeValueAsBytes(product));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public List<Long> getAllIds() {
-        return repository.getAllIds();
+        return ids.toList();
+    }
+
+    public IdPageDto getIds(long after, int limit) {
+        IdPageDto.validateLimit(limit);
+        return IdPageDto.of(repository.getIdsAfter(after, Limit.of(limit + 1)), limit);
+    }
+
+    // a product changed again after the page was read is returned in its latest state, and once more on the next poll
+    public ProductChangesDto getChanges(long since, int limit) {
+        IdPageDto.validateLimit(limit);
+        List<ProductChange> fetched = changeLog.findSince(since, limit + 1);
+        List<ProductChange> page = fetched.size() > limit ? fetched.subList(0, limit) : fetched;
+        List<Long> changedIds = page.stream()
+                .filter(change -> !change.isDeleted())
+                .map(ProductChange::getProductId)
+                .toList();
+        List<Long> deletedIds = page.stream()
+                .filter(ProductChange::isDeleted)
+                .map(ProductChange::getProductId)
+                .toList();
+        List<ProductDto> changed = repository.findAllById(changedIds).stream()
+                .map(ProductDto::new)
+                .toList();
+        long version = page.isEmpty() ? since : page.getLast().getChangeVersion();
+        return new ProductChangesDto(changed, deletedIds, version, fetched.size() > limit);
     }
 
+    // a miss falls back to the DB, as the Product may have been created by another instance
     public void validatePresence(long productId) {
-        find(productId)
+        if (ids.contains(productId))
+            return;
+        long removals = ids.removals();
+        findCached(productId)
                 .orElseThrow(() -> new NoSuchProductException(productId));
+        ids.addUnlessRemovedSince(productId, removals);
     }
 
     public void delete(long productId) {
         logger.info("ProductService deletes {} Product", productId);
-        repository.deleteById(productId);
+        changeLog.deleteById(productId);
+        ids.remove(productId);
+        evict(productId);
+        invalidationBus.publish(InvalidationBus.PRODUCT_TOPIC, Change.DELETED, productId);
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    public LookupStats getLookupStats() {
+        return lookups.stats();
     }
 
     public ProductDto rename(long productId, String productNewName) {
@@ -60,6 +178,9 @@ public class ProductService {
         Product product = find(productId)
                 .orElseThrow(() -> new NoSuchProductException(productId));
         product.setProductName(productNewName);
-        return new ProductDto(repository.save(product));
+        ProductDto renamed = new ProductDto(changeLog.save(product));
+        evict(productId);
+        invalidationBus.publish(InvalidationBus.PRODUCT_TOPIC, Change.UPDATED, productId);
+        return renamed;
     }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package org.lager.service;
 import org.lager.exception.UserExistsAlreadyException;
 import org.lager.exception.UserIllegalLoginException;
 import org.lager.exception.UserIllegalPasswordException;
+import org.lager.security.JwtTokenProvider;
+import org.lager.security.TokenRevocations;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.UserDetailsManager;
@@ -13,10 +15,15 @@ public class UserService {
 
     private final UserDetailsManager userDetailsManager;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocations tokenRevocations;
+    private final JwtTokenProvider tokenProvider;
 
-    public UserService(UserDetailsManager userDetailsManager, PasswordEncoder passwordEncoder) {
+    public UserService(UserDetailsManager userDetailsManager, PasswordEncoder passwordEncoder,
+                       TokenRevocations tokenRevocations, JwtTokenProvider tokenProvider) {
         this.userDetailsManager = userDetailsManager;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocations = tokenRevocations;
+        this.tokenProvider = tokenProvider;
     }
 
     public void createUser(String login, String password) throws UserIllegalLoginException, UserIllegalPasswordException, UserExistsAlreadyException {
@@ -34,6 +41,18 @@ public class UserService {
     public void deleteUser(String login) throws UserIllegalLoginException {
         validLogin(login);
         userDetailsManager.deleteUser(login);
+        revoke(login);
+    }
+
+    // tokens carry the authorities they were issued with, so they stay valid until revoked or expired
+    public void revokeTokens(String login) throws UserIllegalLoginException {
+        validLogin(login);
+        revoke(login);
+    }
+
+    private void revoke(String login) {
+        tokenRevocations.revoke(login);
+        tokenProvider.evict(login);
     }
 
     private void checkIfUserExists(String login) throws UserExistsAlreadyException {
@@ -0,0 +1,5 @@
+-- tokens of USERNAME issued up to REVOKED_AT (epoch millis) are rejected, rows older than a token's lifetime are purged
+CREATE TABLE IF NOT EXISTS TOKEN_REVOCATIONS (
+    USERNAME VARCHAR(50) NOT NULL,
+    REVOKED_AT BIGINT NOT NULL);
+CREATE INDEX TOKEN_REVOCATIONS_REVOKED_AT_IDX ON TOKEN_REVOCATIONS (REVOKED_AT);
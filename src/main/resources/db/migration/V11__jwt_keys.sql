@@ -0,0 +1,5 @@
+-- HMAC keys shared by every instance, SECRET is base64; the newest key old enough to be known everywhere signs
+CREATE TABLE IF NOT EXISTS JWT_KEYS (
+    KID VARCHAR(36) PRIMARY KEY,
+    SECRET VARCHAR(88) NOT NULL,
+    CREATED_AT BIGINT NOT NULL);
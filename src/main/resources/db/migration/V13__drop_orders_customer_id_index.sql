@@ -0,0 +1,2 @@
+-- nothing reads orders by customer, so order inserts no longer maintain this index
+DROP INDEX ORDERS_CUSTOMER_ID_IDX;
@@ -0,0 +1,3 @@
+CREATE INDEX BASKETS_CUSTOMER_ID_IDX ON BASKETS (CUSTOMER_ID);
+CREATE INDEX ORDERS_CUSTOMER_ID_IDX ON ORDERS (CUSTOMER_ID);
+CREATE INDEX AUTHORITIES_USERNAME_IDX ON AUTHORITIES (USERNAME);
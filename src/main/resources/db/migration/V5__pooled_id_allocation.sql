@@ -0,0 +1,4 @@
+ALTER SEQUENCE PRODUCT_KEY INCREMENT BY 50;
+ALTER SEQUENCE CUSTOMER_KEY INCREMENT BY 50;
+ALTER SEQUENCE BASKET_KEY INCREMENT BY 50;
+ALTER SEQUENCE ORDER_KEY INCREMENT BY 50;
@@ -0,0 +1,2 @@
+-- ORDER_ID is a time-ordered ID assigned by OrderIdGenerator
+DROP SEQUENCE ORDER_KEY;
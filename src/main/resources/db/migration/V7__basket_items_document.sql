@@ -0,0 +1,2 @@
+-- all items of a basket in one binary document, used when basket.storage=document
+ALTER TABLE BASKETS ADD COLUMN ITEMS BYTEA;
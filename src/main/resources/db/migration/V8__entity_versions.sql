@@ -0,0 +1,3 @@
+-- bumped by Hibernate on every update, served as the ETag of products and customers
+ALTER TABLE PRODUCTS ADD COLUMN VERSION BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE CUSTOMERS ADD COLUMN VERSION BIGINT NOT NULL DEFAULT 0;
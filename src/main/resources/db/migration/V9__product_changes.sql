@@ -0,0 +1,15 @@
+-- a single row, bumped by every catalog change and locked until that change commits
+CREATE TABLE IF NOT EXISTS CATALOG_VERSION (
+    VERSION BIGINT NOT NULL);
+
+-- the latest change of each product, kept as a tombstone once the product is deleted
+CREATE TABLE IF NOT EXISTS PRODUCT_CHANGES (
+    PRODUCT_ID BIGINT PRIMARY KEY,
+    CHANGE_VERSION BIGINT NOT NULL,
+    DELETED BOOLEAN NOT NULL);
+CREATE INDEX PRODUCT_CHANGES_CHANGE_VERSION_IDX ON PRODUCT_CHANGES (CHANGE_VERSION);
+
+-- readers page on CHANGE_VERSION alone, so every existing product gets a version of its own
+INSERT INTO PRODUCT_CHANGES (PRODUCT_ID, CHANGE_VERSION, DELETED)
+    SELECT PRODUCT_ID, ROW_NUMBER() OVER (ORDER BY PRODUCT_ID), FALSE FROM PRODUCTS;
+INSERT INTO CATALOG_VERSION (VERSION) SELECT COUNT(*) FROM PRODUCT_CHANGES;
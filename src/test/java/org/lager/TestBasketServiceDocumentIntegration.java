@@ -0,0 +1,92 @@
+package org.lager;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lager.model.BasketItem;
+import org.lager.service.BasketService;
+import org.lager.service.CustomerService;
+import org.lager.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+
+import static org.lager.BasketFixtures.*;
+import static org.lager.CustomerFixtures.*;
+import static org.lager.ProductFixtures.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("integrated BasketService with document storage")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:integrationtest.properties", properties = "basket.storage=document")
+class TestBasketServiceDocumentIntegration implements WithAssertions {
+
+    @Autowired
+    BasketService service;
+    @Autowired
+    CustomerService customerService;
+    @Autowired
+    ProductService productService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void init() {
+        customerService.create(defaultCustomerName());
+        productService.create(defaultProductName());
+        customerService.create(anotherCustomerName());
+        productService.create(anotherProductName());
+    }
+
+    @Test
+    @DisplayName("adds to and removes from Basket")
+    public void addsAndRemovesTest() {
+        //When
+        service.addToBasket(anotherCustomerId(), defaultProductId(), 2);
+        service.addToBasket(anotherCustomerId(), anotherProductId(), 3);
+        Map<Long, Integer> basketBefore = service.getContentOfBasket(anotherCustomerId());
+        service.removeFromBasket(anotherCustomerId(), anotherProductId());
+        Map<Long, Integer> basketAfter = service.getContentOfBasket(anotherCustomerId());
+
+        //Then
+        assertThat(basketBefore).containsExactlyInAnyOrderEntriesOf(basketContentOf(anotherBasket()));
+        assertThat(basketAfter).containsExactlyInAnyOrderEntriesOf(basketContentOf(anotherBasketWith(defaultProductId(), 2)));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BASKET_ITEMS", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("accumulates additions of the same Product in one line")
+    public void accumulatesAdditionsTest() {
+        //When
+        BasketItem first = service.addToBasket(defaultCustomerId(), defaultProductId(), 2);
+        BasketItem second = service.addToBasket(defaultCustomerId(), defaultProductId(), 3);
+        BasketItem removed = service.addToBasket(defaultCustomerId(), defaultProductId(), -5);
+
+        //Then
+        assertThat(first).isEqualTo(new BasketItem(defaultProductId(), 2));
+        assertThat(second).isEqualTo(new BasketItem(defaultProductId(), 5));
+        assertThat(removed).isEqualTo(new BasketItem(defaultProductId(), 0));
+        assertThat(service.getContentOfBasket(defaultCustomerId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("drops basket when customer is deleted")
+    void checkIfBasketIsDroppedWhenCustomerIsDeleted() {
+        //When
+        service.addToBasket(defaultCustomerId(), defaultProductId(), 1);
+        Map<Long, Integer> basketBefore = service.getContentOfBasket(defaultCustomerId());
+        customerService.delete(defaultCustomerId());
+        Map<Long, Integer> basketAfter = service.getContentOfBasket(defaultCustomerId());
+
+        //Then
+        assertThat(basketBefore).containsExactlyInAnyOrderEntriesOf(basketContentOf(defaultBasket()));
+        assertThat(basketAfter).isEmpty();
+    }
+}
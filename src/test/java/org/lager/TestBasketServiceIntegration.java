@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.lager.exception.NoSuchCustomerException;
 import org.lager.exception.NoSuchProductException;
+import org.lager.model.BasketItem;
 import org.lager.service.BasketService;
 import org.lager.service.CustomerService;
 import org.lager.service.ProductService;
@@ -17,6 +18,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 import static org.lager.BasketFixtures.*;
 import static org.lager.CustomerFixtures.*;
@@ -104,6 +106,48 @@ class TestBasketServiceIntegration implements WithAssertions {
         assertThat(basketAfter).containsExactlyInAnyOrderEntriesOf(basketContentOf(anotherBasketWith(defaultProductId(), 2)));
     }
 
+    @Test
+    @DisplayName("accumulates additions of the same Product in one line")
+    public void accumulatesAdditionsTest() {
+        //When
+        BasketItem first = service.addToBasket(defaultCustomerId(), defaultProductId(), 2);
+        BasketItem second = service.addToBasket(defaultCustomerId(), defaultProductId(), 3);
+        BasketItem removed = service.addToBasket(defaultCustomerId(), defaultProductId(), -5);
+        Map<Long, Integer> basketAfter = service.getContentOfBasket(defaultCustomerId());
+
+        //Then
+        assertThat(first).isEqualTo(new BasketItem(defaultProductId(), 2));
+        assertThat(second).isEqualTo(new BasketItem(defaultProductId(), 5));
+        assertThat(removed).isEqualTo(new BasketItem(defaultProductId(), 0));
+        assertThat(basketAfter).isEmpty();
+    }
+
+    @Test
+    @DisplayName("shares one Basket between concurrent first additions")
+    public void concurrentFirstAdditionsTest() throws InterruptedException {
+        //Given
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] clicks = new Thread[4];
+        for (int i = 0; i < clicks.length; i++)
+            clicks[i] = Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                service.addToBasket(defaultCustomerId(), defaultProductId(), 1);
+            });
+
+        //When
+        start.countDown();
+        for (Thread click : clicks)
+            click.join();
+        Map<Long, Integer> basketAfter = service.getContentOfBasket(defaultCustomerId());
+
+        //Then
+        assertThat(basketAfter).containsExactlyEntriesOf(Map.of(defaultProductId(), clicks.length));
+        assertThat(service.getAllIds()).containsExactly(defaultCustomerId());
+    }
 
     @Test
     @DisplayName("drops whole basket")
@@ -0,0 +1,84 @@
+package org.lager;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lager.model.OrderItem;
+import org.lager.model.dto.OrderDto;
+import org.lager.repository.WriteBehindBasketStore;
+import org.lager.service.BasketService;
+import org.lager.service.CustomerService;
+import org.lager.service.OrderService;
+import org.lager.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.lager.CustomerFixtures.*;
+import static org.lager.ProductFixtures.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("integrated BasketService with write-behind storage")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:integrationtest.properties",
+        properties = {"basket.write-behind.enabled=true", "basket.write-behind.interval=PT1H"})
+class TestBasketServiceWriteBehindIntegration implements WithAssertions {
+
+    @Autowired
+    BasketService service;
+    @Autowired
+    CustomerService customerService;
+    @Autowired
+    ProductService productService;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    WriteBehindBasketStore store;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void init() {
+        customerService.create(defaultCustomerName());
+        productService.create(defaultProductName());
+    }
+
+    private Integer storedAmount() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(AMOUNT), 0) FROM BASKET_ITEMS", Integer.class);
+    }
+
+    @Test
+    @DisplayName("writes accumulated additions with the next flush")
+    public void flushesAdditionsTest() {
+        //When
+        for (int i = 0; i < 5; i++)
+            service.addToBasket(defaultCustomerId(), defaultProductId(), 1);
+        Integer storedBefore = storedAmount();
+        store.flush();
+        Integer storedAfter = storedAmount();
+
+        //Then
+        assertThat(service.getContentOfBasket(defaultCustomerId())).containsEntry(defaultProductId(), 5);
+        assertThat(storedBefore).isZero();
+        assertThat(storedAfter).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("orders additions not flushed yet")
+    public void ordersPendingAdditionsTest() {
+        //When
+        service.addToBasket(defaultCustomerId(), defaultProductId(), 3);
+        OrderDto order = orderService.order(defaultCustomerId());
+        store.flush();
+
+        //Then
+        assertThat(order.items()).containsExactly(new OrderItem(defaultProductId(), 3));
+        assertThat(service.getContentOfBasket(defaultCustomerId())).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BASKETS", Integer.class)).isZero();
+    }
+}
@@ -5,14 +5,20 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.lager.exception.NoSuchCustomerException;
 import org.lager.model.dto.CustomerDto;
+import org.lager.service.BasketService;
 import org.lager.service.CustomerService;
+import org.lager.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
+import java.util.List;
+
 import static org.lager.CustomerFixtures.*;
+import static org.lager.ProductFixtures.defaultProductId;
+import static org.lager.ProductFixtures.defaultProductName;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -23,6 +29,10 @@ class TestCustomerServiceIntegration implements WithAssertions {
 
     @Autowired
     CustomerService service;
+    @Autowired
+    ProductService productService;
+    @Autowired
+    BasketService basketService;
 
     @Test
     @DisplayName("creates")
@@ -80,6 +90,25 @@ class TestCustomerServiceIntegration implements WithAssertions {
         //Then
     }
 
+    @Test
+    @DisplayName("deletes many with their baskets")
+    void deletesMany() {
+        //Given
+        service.create(defaultCustomerName());
+        service.create(anotherCustomerName());
+        productService.create(defaultProductName());
+        basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1);
+        basketService.addToBasket(anotherCustomerId(), defaultProductId(), 2);
+
+        //When
+        int deleted = service.delete(List.of(defaultCustomerId(), anotherCustomerId(), nonExistingCustomerId()));
+
+        //Then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(service.getAllIds()).isEmpty();
+        assertThat(basketService.getAllIds()).isEmpty();
+    }
+
     @Test
     @DisplayName("renames existing")
     void renamesExisting() {
@@ -92,7 +121,10 @@ class TestCustomerServiceIntegration implements WithAssertions {
         CustomerDto customer = service.get(defaultCustomerId());
 
         //Then
-        assertThat(customer).isEqualTo(new CustomerDto(defaultCustomerWithName("newName")));
+        assertThat(customer).usingRecursiveComparison()
+                .ignoringFields("version")
+                .isEqualTo(new CustomerDto(defaultCustomerWithName("newName")));
+        assertThat(customer.version()).isEqualTo(1);
     }
 
     @Test
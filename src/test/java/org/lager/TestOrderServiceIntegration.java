@@ -1,12 +1,18 @@
 package org.lager;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.assertj.core.api.WithAssertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.lager.exception.NoSuchOrderException;
 import org.lager.exception.OrderItemSetNotPresentException;
+import org.lager.model.Basket;
 import org.lager.model.dto.OrderDto;
+import org.lager.repository.BasketStore;
 import org.lager.service.BasketService;
 import org.lager.service.CustomerService;
 import org.lager.service.OrderService;
@@ -18,8 +24,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
 import static org.lager.CustomerFixtures.*;
-import static org.lager.OrderFixtures.defaultOrder;
-import static org.lager.OrderFixtures.defaultOrderId;
+import static org.lager.OrderFixtures.defaultOrderItems;
 import static org.lager.ProductFixtures.*;
 
 @SpringBootTest
@@ -37,9 +42,19 @@ class TestOrderServiceIntegration implements WithAssertions {
     ProductService productService;
     @Autowired
     BasketService basketService;
+    @Autowired
+    BasketStore basketStore;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+    boolean statisticsEnabled;
 
     @BeforeEach
     public void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
         customerService.create(defaultCustomerName());
         productService.create(defaultProductName());
         customerService.create(anotherCustomerName());
@@ -47,25 +62,53 @@ class TestOrderServiceIntegration implements WithAssertions {
         basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1);
     }
 
+    @AfterEach
+    public void restoreStatistics() {
+        statistics.clear();
+        statistics.setStatisticsEnabled(statisticsEnabled);
+    }
+
     @Test
     @DisplayName("orders a basket")
     void properCase() throws NoSuchOrderException {
-        assertThatThrownBy(() -> service.get(defaultOrderId()))
-                .isInstanceOf(NoSuchOrderException.class);
-        service.order(defaultCustomerId());
-        OrderDto orderAfter = service.get(defaultOrderId());
+        OrderDto ordered = service.order(defaultCustomerId());
+        OrderDto orderAfter = service.get(ordered.orderId());
 
-        assertThat(orderAfter).isEqualTo(new OrderDto(defaultOrder()));
+        assertThat(orderAfter).isEqualTo(new OrderDto(ordered.orderId(), defaultCustomerId(), defaultOrderItems()));
+        assertThat(service.getAllIds()).containsExactly(ordered.orderId());
+    }
+
+    @Test
+    @DisplayName("orders with increasing IDs")
+    void increasingIds() {
+        basketService.addToBasket(anotherCustomerId(), anotherProductId(), 1);
+
+        OrderDto first = service.order(defaultCustomerId());
+        OrderDto second = service.order(anotherCustomerId());
+
+        assertThat(second.orderId()).isGreaterThan(first.orderId());
     }
 
     @Test
     @DisplayName("orders an empty/non-existing basket")
     void emptyBasket() {
-        assertThatThrownBy(() -> service.get(defaultOrderId()))
-                .isInstanceOf(NoSuchOrderException.class);
         assertThatThrownBy(() -> service.order(nonExistingCustomerId()))
                 .isInstanceOf(OrderItemSetNotPresentException.class);
-        assertThatThrownBy(() -> service.get(defaultOrderId()))
-                .isInstanceOf(NoSuchOrderException.class);
+        assertThat(service.getAllIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("orders a large basket in a handful of statements")
+    void batchedCheckout() {
+        Basket basket = new Basket(anotherCustomerId());
+        for (long productId = 1; productId <= 200; productId++)
+            basket.insert(productId, 1);
+        basketStore.save(basket);
+        statistics.clear();
+
+        OrderDto ordered = service.order(anotherCustomerId());
+
+        assertThat(ordered.items()).hasSize(200);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(10);
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.lager.exception.NoSuchProductException;
+import org.lager.model.dto.ProductChangesDto;
 import org.lager.model.dto.ProductDto;
 import org.lager.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -94,7 +95,10 @@ class TestProductServiceIntegration implements WithAssertions {
         ProductDto product = service.get(defaultProductId());
 
         //Then
-        assertThat(product).isEqualTo(new ProductDto(defaultProductWithName("new Name")));
+        assertThat(product).usingRecursiveComparison()
+                .ignoringFields("version")
+                .isEqualTo(new ProductDto(defaultProductWithName("new Name")));
+        assertThat(product.version()).isEqualTo(1);
     }
 
     @Test
@@ -110,4 +114,25 @@ class TestProductServiceIntegration implements WithAssertions {
 
         //Then
     }
+
+    @Test
+    @DisplayName("lists changes since a version")
+    void listsChanges() {
+        //Given
+        long start = service.getChanges(0, 1000).version();
+        service.create(defaultProductName());
+        service.create(anotherProductName());
+        long created = service.getChanges(start, 1000).version();
+
+        //When
+        service.rename(defaultProductId(), "new Name");
+        service.delete(anotherProductId());
+        ProductChangesDto result = service.getChanges(created, 1000);
+
+        //Then
+        assertThat(result.changed()).extracting(ProductDto::productName).containsExactly("new Name");
+        assertThat(result.deleted()).containsExactly(anotherProductId());
+        assertThat(result.more()).isFalse();
+        assertThat(service.getChanges(result.version(), 1000).changed()).isEmpty();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package org.lager.cache;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@DisplayName("BoundedCache")
+class BoundedCacheTest implements WithAssertions {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofNanos(100), clock::get);
+
+    @Test
+    @DisplayName("loads a missing value once and then hits")
+    void readThrough() {
+        //When
+        Optional<String> first = cache.get(1L, id -> Optional.of("one"));
+        Optional<String> second = cache.get(1L, id -> Optional.of("other"));
+
+        //Then
+        assertThat(first).contains("one");
+        assertThat(second).contains("one");
+        assertThat(cache.stats()).isEqualTo(new CacheStats(1, 1, 0, 1));
+    }
+
+    @Test
+    @DisplayName("does not keep absent values")
+    void absentValue() {
+        //When
+        Optional<String> first = cache.get(1L, id -> Optional.empty());
+        Optional<String> second = cache.get(1L, id -> Optional.of("one"));
+
+        //Then
+        assertThat(first).isEmpty();
+        assertThat(second).contains("one");
+        assertThat(cache.stats()).isEqualTo(new CacheStats(0, 2, 0, 1));
+    }
+
+    @Nested
+    @DisplayName("evicts")
+    class Eviction {
+
+        @Test
+        @DisplayName("the least recently used value over its size")
+        void leastRecentlyUsed() {
+            //Given
+            cache.get(1L, id -> Optional.of("one"));
+            clock.incrementAndGet();
+            cache.get(2L, id -> Optional.of("two"));
+            clock.incrementAndGet();
+            cache.get(1L, id -> Optional.of("unused"));
+            clock.incrementAndGet();
+
+            //When
+            cache.get(3L, id -> Optional.of("three"));
+            clock.incrementAndGet();
+            Optional<String> evicted = cache.get(2L, id -> Optional.of("reloaded"));
+
+            //Then
+            assertThat(evicted).contains("reloaded");
+            assertThat(cache.stats().evictions()).isEqualTo(2);
+            assertThat(cache.stats().size()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("expired values")
+        void expired() {
+            //Given
+            cache.get(1L, id -> Optional.of("one"));
+
+            //When
+            clock.addAndGet(100);
+            Optional<String> result = cache.get(1L, id -> Optional.of("reloaded"));
+
+            //Then
+            assertThat(result).contains("reloaded");
+            assertThat(cache.stats()).isEqualTo(new CacheStats(0, 2, 1, 1));
+        }
+
+        @Test
+        @DisplayName("expired values before recently unused ones")
+        void expiredFirst() {
+            //Given
+            cache.get(1L, id -> Optional.of("one"));
+            clock.addAndGet(60);
+            cache.get(2L, id -> Optional.of("two"));
+            clock.addAndGet(30);
+            cache.get(1L, id -> Optional.of("unused"));
+            clock.addAndGet(20);
+
+            //When
+            cache.get(3L, id -> Optional.of("three"));
+
+            //Then
+            assertThat(cache.get(2L, id -> Optional.of("reloaded"))).contains("two");
+            assertThat(cache.stats().evictions()).isOne();
+        }
+
+        @Test
+        @DisplayName("cold values wherever they are stored, keeping a hot working set")
+        void hotWorkingSet() {
+            //Given
+            BoundedCache<Long, String> large = new BoundedCache<>(1_000, Duration.ofMinutes(1), clock::get);
+
+            //When
+            for (long key = 0; key < 10_000; key++) {
+                large.get(key, id -> Optional.of("value " + id));
+                for (long hot = Math.max(0, key - 200); hot < key; hot++) {
+                    clock.incrementAndGet();
+                    large.get(hot, id -> Optional.of("reloaded"));
+                }
+            }
+
+            //Then
+            assertThat(large.stats().misses()).isEqualTo(10_000);
+            assertThat(large.stats().size()).isLessThanOrEqualTo(1_000);
+        }
+    }
+
+    @Nested
+    @DisplayName("keeps up with")
+    class Concurrency {
+
+        @Test
+        @DisplayName("concurrent readers and loaders, counting every lookup")
+        void concurrentReaders() throws InterruptedException {
+            //Given
+            BoundedCache<Long, String> shared = new BoundedCache<>(100, Duration.ofMinutes(1));
+            Thread[] readers = new Thread[4];
+            for (int i = 0; i < readers.length; i++)
+                readers[i] = Thread.ofPlatform().start(() -> {
+                    for (long key = 0; key < 10_000; key++)
+                        shared.get(key % 200, id -> Optional.of("value " + id));
+                });
+
+            //When
+            for (Thread reader : readers)
+                reader.join();
+
+            //Then
+            CacheStats stats = shared.stats();
+            assertThat(stats.hits() + stats.misses()).isEqualTo(40_000);
+            assertThat(stats.size()).isLessThanOrEqualTo(100);
+        }
+    }
+
+    @Nested
+    @DisplayName("invalidates")
+    class Invalidation {
+
+        @Test
+        @DisplayName("one value")
+        void oneValue() {
+            //Given
+            cache.get(1L, id -> Optional.of("one"));
+            cache.get(2L, id -> Optional.of("two"));
+
+            //When
+            cache.invalidate(1L);
+
+            //Then
+            assertThat(cache.get(1L, id -> Optional.of("reloaded"))).contains("reloaded");
+            assertThat(cache.get(2L, id -> Optional.of("unused"))).contains("two");
+        }
+
+        @Test
+        @DisplayName("matching values")
+        void matchingValues() {
+            //Given
+            cache.get(1L, id -> Optional.of("one"));
+            cache.get(2L, id -> Optional.of("two"));
+
+            //When
+            cache.invalidateIf(value -> value.startsWith("o"));
+
+            //Then
+            assertThat(cache.get(1L, id -> Optional.of("reloaded"))).contains("reloaded");
+            assertThat(cache.get(2L, id -> Optional.of("unused"))).contains("two");
+        }
+
+        @Test
+        @DisplayName("all values")
+        void allValues() {
+            //Given
+            cache.get(1L, id -> Optional.of("one"));
+
+            //When
+            cache.invalidateAll();
+
+            //Then
+            assertThat(cache.stats().size()).isZero();
+        }
+
+        @Test
+        @DisplayName("a value loaded during the invalidation")
+        void concurrentLoad() {
+            //When
+            Optional<String> result = cache.get(1L, id -> {
+                cache.invalidate(id);
+                return Optional.of("stale");
+            });
+
+            //Then
+            assertThat(result).contains("stale");
+            assertThat(cache.stats().size()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("rejects a non-positive size")
+    void invalidSize() {
+        assertThatThrownBy(() -> new BoundedCache<Long, String>(0, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
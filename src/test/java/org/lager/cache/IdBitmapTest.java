@@ -0,0 +1,78 @@
+package org.lager.cache;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("IdBitmap")
+class IdBitmapTest implements WithAssertions {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Long> stored = new ArrayList<>(List.of(100_000_001L, 100_000_000L, 100_000_050L));
+    private final IdBitmap bitmap = new IdBitmap(() -> {
+        loads.incrementAndGet();
+        return stored;
+    });
+
+    @Test
+    @DisplayName("loads lazily and only once")
+    void lazyLoad() {
+        //When
+        boolean present = bitmap.contains(100_000_000L);
+        boolean absent = bitmap.contains(100_000_002L);
+        List<Long> all = bitmap.toList();
+
+        //Then
+        assertThat(present).isTrue();
+        assertThat(absent).isFalse();
+        assertThat(all).containsExactly(100_000_000L, 100_000_001L, 100_000_050L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("keeps added and removed IDs")
+    void addAndRemove() {
+        //When
+        bitmap.add(100_000_002L);
+        bitmap.remove(100_000_001L);
+        bitmap.removeAll(List.of(100_000_050L, 100_000_999L));
+
+        //Then
+        assertThat(bitmap.toList()).containsExactly(100_000_000L, 100_000_002L);
+    }
+
+    @Test
+    @DisplayName("replaces its content on reload")
+    void reload() {
+        //Given
+        bitmap.add(100_000_002L);
+        stored.clear();
+        stored.add(100_000_003L);
+
+        //When
+        bitmap.reload();
+
+        //Then
+        assertThat(bitmap.toList()).containsExactly(100_000_003L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("does not add an ID back that was removed while it was looked up")
+    void racedRemoval() {
+        //Given
+        long removals = bitmap.removals();
+        bitmap.remove(100_000_001L);
+
+        //When
+        bitmap.addUnlessRemovedSince(100_000_001L, removals);
+        bitmap.addUnlessRemovedSince(100_000_002L, bitmap.removals());
+
+        //Then
+        assertThat(bitmap.toList()).containsExactly(100_000_000L, 100_000_002L, 100_000_050L);
+    }
+}
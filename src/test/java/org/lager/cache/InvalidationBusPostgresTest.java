@@ -0,0 +1,87 @@
+package org.lager.cache;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Runs against a local Postgres, e.g. POSTGRES_TEST_URL=jdbc:postgresql://localhost:5432/postgres
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TEST_URL", matches = ".+")
+@DisplayName("InvalidationBus on Postgres")
+class InvalidationBusPostgresTest implements WithAssertions {
+
+    private DriverManagerDataSource dataSource;
+    private InvalidationBus publisher;
+    private InvalidationBus listener;
+
+    @BeforeEach
+    void init() {
+        dataSource = new DriverManagerDataSource(
+                System.getenv("POSTGRES_TEST_URL"),
+                System.getenv().getOrDefault("POSTGRES_TEST_USER", "postgres"),
+                System.getenv().getOrDefault("POSTGRES_TEST_PASSWORD", "admin"));
+        publisher = new InvalidationBus(dataSource, true, Duration.ofMillis(100));
+        listener = new InvalidationBus(dataSource, true, Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    void close() throws InterruptedException {
+        publisher.stop();
+        listener.stop();
+    }
+
+    private void awaitListening() throws InterruptedException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int i = 0; i < 50 && listeningBackends(jdbcTemplate) == 0; i++)
+            Thread.sleep(100);
+    }
+
+    private static int listeningBackends(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_stat_activity WHERE query = 'LISTEN " + InvalidationBus.CHANNEL + "'",
+                Integer.class);
+    }
+
+    @Test
+    @DisplayName("delivers changes to another instance")
+    void deliversChanges() throws InterruptedException {
+        //Given
+        BlockingQueue<Long> evicted = new LinkedBlockingQueue<>();
+        listener.subscribe("product", evicted::add, () -> {});
+        listener.start();
+        awaitListening();
+
+        //When
+        publisher.publish("product", InvalidationBus.Change.UPDATED, 42L);
+
+        //Then
+        assertThat(evicted.poll(5, TimeUnit.SECONDS)).isEqualTo(42L);
+    }
+
+    @Test
+    @DisplayName("flushes everything after reconnecting")
+    void flushesAfterReconnect() throws InterruptedException {
+        //Given
+        CountDownLatch flushed = new CountDownLatch(1);
+        listener.subscribe("product", id -> {}, flushed::countDown);
+        listener.start();
+        awaitListening();
+
+        //When
+        new JdbcTemplate(dataSource).queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity " +
+                "WHERE query = 'LISTEN " + InvalidationBus.CHANNEL + "'");
+
+        //Then
+        assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
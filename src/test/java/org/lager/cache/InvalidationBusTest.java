@@ -0,0 +1,117 @@
+package org.lager.cache;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.mock;
+
+@DisplayName("InvalidationBus")
+class InvalidationBusTest implements WithAssertions {
+
+    private final InvalidationBus bus = new InvalidationBus(mock(DataSource.class), false, Duration.ZERO);
+
+    @Nested
+    @DisplayName("when receives")
+    class ReceiveTest {
+
+        @Test
+        @DisplayName("evicts the IDs of another instance")
+        void evictsForeignChanges() {
+            //Given
+            List<Long> evicted = new ArrayList<>();
+            bus.subscribe("product", evicted::add, () -> {});
+            bus.subscribe("customer", id -> fail("wrong topic"), () -> {});
+
+            //When
+            bus.receive("other-node:product:UPDATED:1,2");
+
+            //Then
+            assertThat(evicted).containsExactly(1L, 2L);
+        }
+
+        @Test
+        @DisplayName("tells listeners the kind of change")
+        void passesChange() {
+            //Given
+            List<String> changes = new ArrayList<>();
+            bus.subscribeChanges("product", (change, id) -> changes.add(change + " " + id), () -> {});
+
+            //When
+            bus.receive("other-node:product:CREATED:1");
+            bus.receive("other-node:product:DELETED:2");
+
+            //Then
+            assertThat(changes).containsExactly("CREATED 1", "DELETED 2");
+        }
+
+        @Test
+        @DisplayName("ignores its own changes")
+        void ignoresOwnChanges() {
+            //Given
+            List<Long> evicted = new ArrayList<>();
+            bus.subscribe("product", evicted::add, () -> {});
+
+            //When
+            bus.receive(bus.nodeId() + ":product:UPDATED:1");
+
+            //Then
+            assertThat(evicted).isEmpty();
+        }
+
+        @Test
+        @DisplayName("flushes all topics after a gap")
+        void flushesAll() {
+            //Given
+            List<String> flushed = new ArrayList<>();
+            bus.subscribe("product", id -> {}, () -> flushed.add("product"));
+            bus.subscribe("customer", id -> {}, () -> flushed.add("customer"));
+
+            //When
+            bus.flushAll();
+
+            //Then
+            assertThat(flushed).containsExactlyInAnyOrder("product", "customer");
+        }
+    }
+
+    @Nested
+    @DisplayName("when publishes")
+    class PublishTest {
+
+        @Test
+        @DisplayName("packs IDs into one payload")
+        void packsIds() {
+            //When
+            List<String> payloads = InvalidationBus.payloads("node", "customer", InvalidationBus.Change.DELETED, List.of(1L, 2L, 3L));
+
+            //Then
+            assertThat(payloads).containsExactly("node:customer:DELETED:1,2,3");
+        }
+
+        @Test
+        @DisplayName("splits many IDs below the NOTIFY payload limit")
+        void splitsLargePayloads() {
+            //Given
+            List<Long> ids = LongStream.range(100_000_000L, 100_002_000L).boxed().toList();
+
+            //When
+            List<String> payloads = InvalidationBus.payloads("node", "customer", InvalidationBus.Change.DELETED, ids);
+
+            //Then
+            assertThat(payloads).hasSizeGreaterThan(1)
+                    .allMatch(payload -> payload.length() <= InvalidationBus.MAX_PAYLOAD_LENGTH);
+            assertThat(payloads.stream()
+                    .flatMap(payload -> List.of(payload.split(":", 4)[3].split(",")).stream())
+                    .map(Long::valueOf)
+                    .toList()).isEqualTo(ids);
+        }
+    }
+}
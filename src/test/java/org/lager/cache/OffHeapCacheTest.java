@@ -0,0 +1,129 @@
+package org.lager.cache;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+@DisplayName("OffHeapCache")
+class OffHeapCacheTest implements WithAssertions {
+
+    private final OffHeapCache cache = new OffHeapCache(64, 16);
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] value = new byte[length];
+        for (int i = 0; i < length; i++)
+            value[i] = (byte) (seed + i);
+        return value;
+    }
+
+    @Test
+    @DisplayName("gives back a value spread over several blocks")
+    void multiBlock() {
+        //Given
+        byte[] value = bytes(40, 7);
+
+        //When
+        cache.put(1L, value);
+        Optional<byte[]> result = cache.get(1L);
+
+        //Then
+        assertThat(result).hasValueSatisfying(bytes -> assertThat(bytes).isEqualTo(value));
+        assertThat(cache.stats()).isEqualTo(new CacheStats(1, 0, 0, 1));
+    }
+
+    @Test
+    @DisplayName("counts a miss")
+    void miss() {
+        //When
+        Optional<byte[]> result = cache.get(1L);
+
+        //Then
+        assertThat(result).isEmpty();
+        assertThat(cache.stats()).isEqualTo(new CacheStats(0, 1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("replaces a value of the same key")
+    void replace() {
+        //Given
+        cache.put(1L, bytes(40, 1));
+
+        //When
+        cache.put(1L, bytes(10, 2));
+
+        //Then
+        assertThat(cache.get(1L)).hasValueSatisfying(bytes -> assertThat(bytes).isEqualTo(bytes(10, 2)));
+        assertThat(cache.stats().evictions()).isZero();
+    }
+
+    @Nested
+    @DisplayName("keeps its byte budget")
+    class Budget {
+
+        @Test
+        @DisplayName("by evicting the least recently used values")
+        void leastRecentlyUsed() {
+            //Given
+            cache.put(1L, bytes(32, 1));
+            cache.put(2L, bytes(32, 2));
+            cache.get(1L);
+
+            //When
+            cache.put(3L, bytes(16, 3));
+
+            //Then
+            assertThat(cache.get(2L)).isEmpty();
+            assertThat(cache.get(1L)).hasValueSatisfying(bytes -> assertThat(bytes).isEqualTo(bytes(32, 1)));
+            assertThat(cache.get(3L)).hasValueSatisfying(bytes -> assertThat(bytes).isEqualTo(bytes(16, 3)));
+            assertThat(cache.stats().evictions()).isOne();
+        }
+
+        @Test
+        @DisplayName("over many more values than it holds, finding every one it kept")
+        void churn() {
+            //Given
+            OffHeapCache large = new OffHeapCache(100 * 16, 16);
+
+            //When
+            for (long key = 0; key < 10_000; key++)
+                large.put(key * 31, bytes((int) (key % 40), (int) key));
+
+            //Then
+            long found = 0;
+            for (long key = 0; key < 10_000; key++) {
+                Optional<byte[]> value = large.get(key * 31);
+                if (value.isPresent()) {
+                    assertThat(value.get()).isEqualTo(bytes((int) (key % 40), (int) key));
+                    found++;
+                }
+            }
+            assertThat(found).isEqualTo(large.stats().size()).isPositive();
+            assertThat(large.stats().evictions()).isEqualTo(10_000 - found);
+            assertThat(large.get(9_999L * 31)).isPresent();
+        }
+
+        @Test
+        @DisplayName("by skipping a value larger than the budget")
+        void tooLarge() {
+            //Given
+            cache.put(1L, bytes(16, 1));
+
+            //When
+            cache.put(2L, bytes(65, 2));
+
+            //Then
+            assertThat(cache.get(2L)).isEmpty();
+            assertThat(cache.get(1L)).isPresent();
+        }
+    }
+
+    @Test
+    @DisplayName("rejects a budget smaller than a block")
+    void invalidBudget() {
+        assertThatThrownBy(() -> new OffHeapCache(8, 16))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,106 @@
+package org.lager.cache;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("SingleFlight")
+class SingleFlightTest implements WithAssertions {
+
+    private final static int WAITERS = 8;
+
+    private final SingleFlight<Long, String> flight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(WAITERS + 1);
+
+    @AfterEach
+    void close() {
+        executor.shutdownNow();
+    }
+
+    private void awaitCalls() throws InterruptedException {
+        for (int i = 0; i < 500 && flight.stats().calls() < 1; i++)
+            Thread.sleep(10);
+    }
+
+    private void awaitCollapsed(long expected) throws InterruptedException {
+        for (int i = 0; i < 500 && flight.stats().collapsed() < expected; i++)
+            Thread.sleep(10);
+    }
+
+    @Test
+    @DisplayName("shares one call between concurrent loads of a key")
+    void collapsesConcurrentLoads() throws Exception {
+        //Given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> load = () -> flight.load(1L, key -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value" + key;
+        });
+
+        //When
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(load));
+        awaitCalls();
+        for (int i = 0; i < WAITERS; i++)
+            results.add(executor.submit(load));
+        awaitCollapsed(WAITERS);
+        release.countDown();
+
+        //Then
+        for (Future<String> result : results)
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value1");
+        assertThat(loads).hasValue(1);
+        assertThat(flight.stats()).isEqualTo(new LookupStats(1, WAITERS));
+    }
+
+    @Test
+    @DisplayName("passes the failure of the shared call to every waiter")
+    void sharesFailure() throws Exception {
+        //Given
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> load = () -> flight.load(1L, key -> {
+            await(release);
+            throw new IllegalStateException("DB down");
+        });
+
+        //When
+        Future<String> leader = executor.submit(load);
+        awaitCalls();
+        Future<String> waiter = executor.submit(load);
+        awaitCollapsed(1);
+        release.countDown();
+
+        //Then
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("loads again once the call returned")
+    void keepsNoResult() {
+        //When
+        flight.load(1L, key -> "first");
+        String second = flight.load(1L, key -> "second");
+        flight.load(2L, key -> "other");
+
+        //Then
+        assertThat(second).isEqualTo("second");
+        assertThat(flight.stats()).isEqualTo(new LookupStats(3, 0));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -42,11 +43,12 @@ public class AuthControllerTest {
         String password = "password";
         String token = "token";
         Authentication authentication = new UsernamePasswordAuthenticationToken(login, password);
-
+        Authentication authenticated = UsernamePasswordAuthenticationToken.authenticated(
+                login, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
 
         Mockito.when(authenticationManager.authenticate(any()))
-                .thenReturn(null);
-        Mockito.when(tokenProvider.generateToken(any())).thenReturn(token);
+                .thenReturn(authenticated);
+        Mockito.when(tokenProvider.generateToken(any(), any())).thenReturn(token);
 
         //When
         mockMvc.perform(get("/login")
@@ -57,7 +59,7 @@ public class AuthControllerTest {
 
         //Then
         Mockito.verify(authenticationManager).authenticate(authentication);
-        Mockito.verify(tokenProvider).generateToken(login);
+        Mockito.verify(tokenProvider).generateToken(login, authenticated.getAuthorities());
     }
 
     @Test
@@ -7,7 +7,10 @@ import org.junit.jupiter.api.*;
 import org.lager.exception.NoSuchBasketException;
 import org.lager.exception.NoSuchCustomerException;
 import org.lager.exception.NoSuchProductException;
+import org.lager.exception.PageIllegalLimitException;
+import org.lager.model.BasketItem;
 import org.lager.model.dto.BasketDto;
+import org.lager.model.dto.IdPageDto;
 import org.lager.security.JwtTokenProvider;
 import org.lager.security.SecurityFilterConfig;
 import org.lager.service.BasketService;
@@ -31,6 +34,7 @@ import static org.lager.ProductFixtures.incorrectProductId;
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BasketController.class)
@@ -49,7 +53,7 @@ class BasketControllerTest implements WithAssertions {
 
     @BeforeEach
     void init () {
-        Mockito.when(tokenProvider.getUser(anyString()))
+        Mockito.when(tokenProvider.getAuthentication(anyString()))
                 .thenReturn(Optional.empty());
     }
 
@@ -94,6 +98,61 @@ class BasketControllerTest implements WithAssertions {
         }
     }
 
+    @Nested
+    @DisplayName("calls getIds")
+    class getIds {
+
+        @Test
+        @DisplayName("and gets a page with a next cursor")
+        void pageWithCursor() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenReturn(new IdPageDto(List.of(defaultCustomerId()), defaultCustomerId()));
+            String expected = "{\"ids\":[" + defaultCustomerId() + "],\"nextCursor\":" + defaultCustomerId() + "}";
+
+            //When
+            String result = mockMvc.perform(get("/basket").param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            Mockito.verify(service).getIds(0, 1);
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and gets the largest page after a cursor without limit")
+        void cursorWithoutLimit() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenReturn(new IdPageDto(List.of(anotherCustomerId()), null));
+
+            //When
+            mockMvc.perform(get("/basket").param("after", String.valueOf(defaultCustomerId())))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("{\"ids\":[" + anotherCustomerId() + "],\"nextCursor\":null}"));
+
+            //Then
+            Mockito.verify(service).getIds(defaultCustomerId(), IdPageDto.MAX_LIMIT);
+            Mockito.verify(service, Mockito.never()).getAllIds();
+        }
+
+        @Test
+        @DisplayName("and throws an Exception when limit is incorrect")
+        void incorrectLimit() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenThrow(PageIllegalLimitException.class);
+
+            //When
+            mockMvc.perform(get("/basket").param("after", String.valueOf(anotherCustomerId())).param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+
+            //Then
+            Mockito.verify(service).getIds(anotherCustomerId(), 0);
+        }
+    }
+
     @Nested
     @DisplayName("calls get")
     class getBasket {
@@ -104,12 +163,16 @@ class BasketControllerTest implements WithAssertions {
             //Given
             Mockito.when(service.get(anyLong()))
                     .thenReturn(new BasketDto(defaultBasket()));
+            Mockito.when(service.getETag(any()))
+                    .thenReturn("1f");
             BasketDto expected = new BasketDto(defaultBasket());
 
             //When
             BasketDto result = basketDtoOf(
                     mockMvc.perform(get("/basket/{customerId}", defaultCustomerId()))
                             .andExpect(status().isOk())
+                            .andExpect(header().string("ETag", "\"1f\""))
+                            .andExpect(header().string("Cache-Control", "no-cache, private"))
                             .andReturn());
 
             //Then
@@ -117,6 +180,25 @@ class BasketControllerTest implements WithAssertions {
             assertThat(result).isEqualTo(expected);
         }
 
+        @Test
+        @DisplayName("and gets Not Modified, when the ETag matches")
+        void notModified() throws Exception {
+            //Given
+            Mockito.when(service.get(anyLong()))
+                    .thenReturn(new BasketDto(defaultBasket()));
+            Mockito.when(service.getETag(any()))
+                    .thenReturn("1f");
+
+            //When
+            mockMvc.perform(get("/basket/{customerId}", defaultCustomerId())
+                            .header("If-None-Match", "\"1f\""))
+                    .andExpect(status().isNotModified())
+                    .andReturn();
+
+            //Then
+            Mockito.verify(service).get(defaultCustomerId());
+        }
+
         @Test
         @DisplayName("and throws an Exception when basket doesn't exists")
         void nonExisting() throws Exception {
@@ -197,6 +279,16 @@ class BasketControllerTest implements WithAssertions {
         }
     }
 
+    private BasketItem basketItemOf(MvcResult result) throws Exception {
+        String json = result.getResponse().getContentAsString();
+        ObjectMapper objectMapper = new ObjectMapper();
+        try {
+            return objectMapper.readValue(json, BasketItem.class);
+        } catch (JsonProcessingException e) {
+            throw new Exception(e);
+        }
+    }
+
     @Nested
     @DisplayName("posts addToBasket")
     class createCustomer {
@@ -206,11 +298,11 @@ class BasketControllerTest implements WithAssertions {
         void oneProduct() throws Exception {
             //Given
             Mockito.when(service.addToBasket(anyLong(), anyLong(), anyInt()))
-                    .thenReturn(new BasketDto(defaultBasket()));
-            BasketDto expected = new BasketDto(defaultBasket());
+                    .thenReturn(new BasketItem(defaultProductId(), 1));
+            BasketItem expected = new BasketItem(defaultProductId(), 1);
 
             //When
-            BasketDto result = basketDtoOf(
+            BasketItem result = basketItemOf(
                     mockMvc.perform(post("/basket/{customerId}/{productId}", defaultCustomerId(), defaultProductId()))
                             .andExpect(status().isAccepted())
                             .andReturn());
@@ -225,11 +317,11 @@ class BasketControllerTest implements WithAssertions {
         void moreProducts() throws Exception {
             //Given
             Mockito.when(service.addToBasket(anyLong(), anyLong(), anyInt()))
-                    .thenReturn(new BasketDto(defaultBasket()));
-            BasketDto expected = new BasketDto(defaultBasket());
+                    .thenReturn(new BasketItem(defaultProductId(), 124));
+            BasketItem expected = new BasketItem(defaultProductId(), 124);
 
             //When
-            BasketDto result = basketDtoOf(
+            BasketItem result = basketItemOf(
                     mockMvc.perform(post("/basket/{customerId}/{productId}/{amount}", defaultCustomerId(), defaultProductId(), 123))
                             .andExpect(status().isAccepted())
                             .andReturn());
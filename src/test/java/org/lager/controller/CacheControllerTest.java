@@ -0,0 +1,152 @@
+package org.lager.controller;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.lager.cache.CacheStats;
+import org.lager.model.dto.CacheRegionDto;
+import org.lager.security.CachingUserDetailsManager;
+import org.lager.security.JwtTokenProvider;
+import org.lager.security.SecurityFilterConfig;
+import org.lager.service.CacheRegionService;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CacheController.class)
+@Import(SecurityFilterConfig.class)
+@DisplayName("Cache Controller")
+@WithMockUser
+class CacheControllerTest implements WithAssertions {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CacheRegionService service;
+    @MockBean
+    private JwtTokenProvider tokenProvider;
+    @MockBean
+    private CachingUserDetailsManager userDetailsManager;
+
+    @BeforeEach
+    void init() {
+        Mockito.when(tokenProvider.getAuthentication(anyString()))
+                .thenReturn(Optional.empty());
+    }
+
+    @Nested
+    @DisplayName("calls getRegionStats")
+    class getRegionStats {
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("and gets the regions as an admin")
+        void admin() throws Exception {
+            //Given
+            Mockito.when(service.getRegionStats())
+                    .thenReturn(List.of(new CacheRegionDto("products", 3, 1, 1, 0.75)));
+            String expected = "[{\"region\":\"products\",\"hits\":3,\"misses\":1,\"puts\":1,\"hitRatio\":0.75}]";
+
+            //When
+            String result = mockMvc.perform(get("/cache/regions"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and is forbidden for a user")
+        void user() throws Exception {
+            //When
+            mockMvc.perform(get("/cache/regions"))
+                    .andExpect(status().isForbidden());
+
+            //Then
+            Mockito.verify(service, Mockito.never()).getRegionStats();
+        }
+    }
+
+    @Nested
+    @DisplayName("calls getTokenCacheStats")
+    class getTokenCacheStats {
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("and gets the counters as an admin")
+        void admin() throws Exception {
+            //Given
+            Mockito.when(tokenProvider.getCacheStats())
+                    .thenReturn(new CacheStats(7, 2, 1, 1));
+            String expected = "{\"hits\":7,\"misses\":2,\"evictions\":1,\"size\":1}";
+
+            //When
+            String result = mockMvc.perform(get("/cache/tokens"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and is forbidden for a user")
+        void user() throws Exception {
+            //When
+            mockMvc.perform(get("/cache/tokens"))
+                    .andExpect(status().isForbidden());
+
+            //Then
+            Mockito.verify(tokenProvider, Mockito.never()).getCacheStats();
+        }
+    }
+
+    @Nested
+    @DisplayName("calls getUserCacheStats")
+    class getUserCacheStats {
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("and gets the counters as an admin")
+        void admin() throws Exception {
+            //Given
+            Mockito.when(userDetailsManager.getCacheStats())
+                    .thenReturn(new CacheStats(5, 3, 0, 2));
+            String expected = "{\"hits\":5,\"misses\":3,\"evictions\":0,\"size\":2}";
+
+            //When
+            String result = mockMvc.perform(get("/cache/users"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and is forbidden for a user")
+        void user() throws Exception {
+            //When
+            mockMvc.perform(get("/cache/users"))
+                    .andExpect(status().isForbidden());
+
+            //Then
+            Mockito.verify(userDetailsManager, Mockito.never()).getCacheStats();
+        }
+    }
+}
@@ -7,10 +7,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.lager.exception.NoSuchCustomerException;
 import org.lager.exception.CustomerIllegalIdException;
 import org.lager.exception.CustomerIllegalNameException;
+import org.lager.exception.NoSuchCustomerException;
+import org.lager.exception.PageIllegalLimitException;
 import org.lager.model.dto.CustomerDto;
+import org.lager.model.dto.IdPageDto;
 import org.lager.security.JwtTokenProvider;
 import org.lager.security.SecurityFilterConfig;
 import org.lager.service.CustomerService;
@@ -19,6 +21,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -31,6 +34,7 @@ import static org.lager.CustomerFixtures.defaultCustomerId;
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CustomerController.class)
@@ -49,7 +53,7 @@ class CustomerControllerTest implements WithAssertions {
 
     @BeforeEach
     void init () {
-        Mockito.when(tokenProvider.getUser(anyString()))
+        Mockito.when(tokenProvider.getAuthentication(anyString()))
                 .thenReturn(Optional.empty());
     }
 
@@ -94,6 +98,61 @@ class CustomerControllerTest implements WithAssertions {
         }
     }
 
+    @Nested
+    @DisplayName("calls getIds")
+    class getIds {
+
+        @Test
+        @DisplayName("and gets a page with a next cursor")
+        void pageWithCursor() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenReturn(new IdPageDto(List.of(defaultCustomerId()), defaultCustomerId()));
+            String expected = "{\"ids\":[" + defaultCustomerId() + "],\"nextCursor\":" + defaultCustomerId() + "}";
+
+            //When
+            String result = mockMvc.perform(get("/customer").param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            Mockito.verify(service).getIds(0, 1);
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and gets the largest page after a cursor without limit")
+        void cursorWithoutLimit() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenReturn(new IdPageDto(List.of(anotherCustomerId()), null));
+
+            //When
+            mockMvc.perform(get("/customer").param("after", String.valueOf(defaultCustomerId())))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("{\"ids\":[" + anotherCustomerId() + "],\"nextCursor\":null}"));
+
+            //Then
+            Mockito.verify(service).getIds(defaultCustomerId(), IdPageDto.MAX_LIMIT);
+            Mockito.verify(service, Mockito.never()).getAllIds();
+        }
+
+        @Test
+        @DisplayName("and throws an Exception when limit is incorrect")
+        void incorrectLimit() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenThrow(PageIllegalLimitException.class);
+
+            //When
+            mockMvc.perform(get("/customer").param("after", String.valueOf(anotherCustomerId())).param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+
+            //Then
+            Mockito.verify(service).getIds(anotherCustomerId(), 0);
+        }
+    }
+
     @Nested
     @DisplayName("posts create")
     class createCustomer {
@@ -158,6 +217,8 @@ class CustomerControllerTest implements WithAssertions {
         @DisplayName("and gets a customer")
         void properCase() throws Exception {
             //Given
+            Mockito.when(service.getETag(anyLong()))
+                    .thenReturn("0");
             Mockito.when(service.get(anyLong()))
                     .thenReturn(new CustomerDto(defaultCustomer()));
             CustomerDto expected = new CustomerDto(defaultCustomer());
@@ -166,6 +227,8 @@ class CustomerControllerTest implements WithAssertions {
             CustomerDto result = customerDtoOf(
                     mockMvc.perform(get("/customer/{customerId}", defaultCustomerId()))
                             .andExpect(status().isOk())
+                            .andExpect(header().string("ETag", "\"0\""))
+                            .andExpect(header().string("Cache-Control", "no-cache, private"))
                             .andReturn());
 
             //Then
@@ -173,11 +236,28 @@ class CustomerControllerTest implements WithAssertions {
             assertThat(result).isEqualTo(expected);
         }
 
+        @Test
+        @DisplayName("and gets Not Modified without building the customer, when the ETag matches")
+        void notModified() throws Exception {
+            //Given
+            Mockito.when(service.getETag(anyLong()))
+                    .thenReturn("0");
+
+            //When
+            mockMvc.perform(get("/customer/{customerId}", defaultCustomerId())
+                            .header("If-None-Match", "\"0\""))
+                    .andExpect(status().isNotModified())
+                    .andReturn();
+
+            //Then
+            Mockito.verify(service, Mockito.never()).get(anyLong());
+        }
+
         @Test
         @DisplayName("and throws an Exception when customer doesn't exists")
         void nonExisting() throws Exception {
             //Given
-            Mockito.when(service.get(anyLong()))
+            Mockito.when(service.getETag(anyLong()))
                     .thenThrow(NoSuchCustomerException.class);
 
             //When
@@ -186,7 +266,7 @@ class CustomerControllerTest implements WithAssertions {
                     .andReturn();
 
             //Then
-            Mockito.verify(service).get(defaultCustomerId());
+            Mockito.verify(service).getETag(defaultCustomerId());
         }
     }
 
@@ -261,6 +341,24 @@ class CustomerControllerTest implements WithAssertions {
         Mockito.verify(service).delete(defaultCustomerId());
     }
 
+    @Test
+    @DisplayName("deletes many")
+    void deleteCustomers() throws Exception {
+        //Given
+        Mockito.when(service.delete(anyList())).thenReturn(2);
+
+        //When
+        String result = mockMvc.perform(delete("/customer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[%d,%d]".formatted(defaultCustomerId(), anotherCustomerId())))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+
+        //Then
+        Mockito.verify(service).delete(List.of(defaultCustomerId(), anotherCustomerId()));
+        assertThat(result).isEqualTo("2");
+    }
+
     private static CustomerDto customerDtoOf(MvcResult result) throws Exception {
         String json = result.getResponse().getContentAsString();
         ObjectMapper objectMapper = new ObjectMapper();
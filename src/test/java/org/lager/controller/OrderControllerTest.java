@@ -7,9 +7,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.lager.cache.LookupStats;
 import org.lager.exception.NoSuchOrderException;
 import org.lager.exception.OrderIllegalIdException;
 import org.lager.exception.OrderItemSetNotPresentException;
+import org.lager.exception.PageIllegalLimitException;
+import org.lager.model.dto.IdPageDto;
 import org.lager.model.dto.OrderDto;
 import org.lager.security.JwtTokenProvider;
 import org.lager.security.SecurityFilterConfig;
@@ -29,11 +32,13 @@ import java.util.Optional;
 import static org.lager.CustomerFixtures.defaultCustomerId;
 import static org.lager.CustomerFixtures.incorrectCustomerId;
 import static org.lager.OrderFixtures.*;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(OrderController.class)
@@ -52,7 +57,7 @@ class OrderControllerTest implements WithAssertions {
 
     @BeforeEach
     void init () {
-        Mockito.when(tokenProvider.getUser(anyString()))
+        Mockito.when(tokenProvider.getAuthentication(anyString()))
                 .thenReturn(Optional.empty());
     }
 
@@ -97,6 +102,94 @@ class OrderControllerTest implements WithAssertions {
         }
     }
 
+    @Nested
+    @DisplayName("calls getLookupStats")
+    class getLookupStats {
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("and gets the counters as an admin")
+        void admin() throws Exception {
+            //Given
+            Mockito.when(service.getLookupStats()).thenReturn(new LookupStats(5, 40));
+            String expected = "{\"calls\":5,\"collapsed\":40}";
+
+            //When
+            String result = mockMvc.perform(get("/order/lookup-stats"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and is forbidden for a user")
+        void user() throws Exception {
+            //When
+            mockMvc.perform(get("/order/lookup-stats"))
+                    .andExpect(status().isForbidden());
+
+            //Then
+            Mockito.verify(service, Mockito.never()).getLookupStats();
+        }
+    }
+
+    @Nested
+    @DisplayName("calls getIds")
+    class getIds {
+
+        @Test
+        @DisplayName("and gets a page with a next cursor")
+        void pageWithCursor() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenReturn(new IdPageDto(List.of(defaultOrderId()), defaultOrderId()));
+            String expected = "{\"ids\":[" + defaultOrderId() + "],\"nextCursor\":" + defaultOrderId() + "}";
+
+            //When
+            String result = mockMvc.perform(get("/order").param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            Mockito.verify(service).getIds(0, 1);
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and gets the largest page after a cursor without limit")
+        void cursorWithoutLimit() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenReturn(new IdPageDto(List.of(anotherOrderId()), null));
+
+            //When
+            mockMvc.perform(get("/order").param("after", String.valueOf(defaultOrderId())))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("{\"ids\":[" + anotherOrderId() + "],\"nextCursor\":null}"));
+
+            //Then
+            Mockito.verify(service).getIds(defaultOrderId(), IdPageDto.MAX_LIMIT);
+            Mockito.verify(service, Mockito.never()).getAllIds();
+        }
+
+        @Test
+        @DisplayName("and throws an Exception when limit is incorrect")
+        void incorrectLimit() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenThrow(PageIllegalLimitException.class);
+
+            //When
+            mockMvc.perform(get("/order").param("after", String.valueOf(anotherOrderId())).param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+
+            //Then
+            Mockito.verify(service).getIds(anotherOrderId(), 0);
+        }
+    }
+
     @Nested
     @DisplayName("post an order")
     class OrderBasket {
@@ -169,6 +262,8 @@ class OrderControllerTest implements WithAssertions {
             OrderDto result = OrderDtoOf(
                     mockMvc.perform(get("/order/{orderId}", defaultOrderId()))
                             .andExpect(status().isOk())
+                            .andExpect(header().string("ETag", "\"" + defaultOrderId() + "\""))
+                            .andExpect(header().string("Cache-Control", "max-age=31536000, private, immutable"))
                             .andReturn());
 
             //Then
@@ -176,6 +271,19 @@ class OrderControllerTest implements WithAssertions {
             assertThat(result).isEqualTo(expected);
         }
 
+        @Test
+        @DisplayName("and gets Not Modified without a lookup, when the ETag matches")
+        void notModified() throws Exception {
+            //When
+            mockMvc.perform(get("/order/{orderId}", defaultOrderId())
+                            .header("If-None-Match", "\"" + defaultOrderId() + "\""))
+                    .andExpect(status().isNotModified())
+                    .andReturn();
+
+            //Then
+            Mockito.verify(service, Mockito.never()).get(anyLong());
+        }
+
         @Test
         @DisplayName("of non-existing Order")
         void nonExistingCase() throws Exception {
@@ -0,0 +1,83 @@
+package org.lager.controller;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lager.security.JwtTokenProvider;
+import org.lager.security.SecurityFilterConfig;
+import org.lager.service.OrderExportService;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OrderExportController.class)
+@Import(SecurityFilterConfig.class)
+@DisplayName("Order Export Controller")
+class OrderExportControllerTest implements WithAssertions {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderExportService service;
+    @MockBean
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void init() {
+        Mockito.when(tokenProvider.getAuthentication(anyString()))
+                .thenReturn(Optional.empty());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("streams orders as NDJSON")
+    void streamsOrders() throws Exception {
+        //Given
+        String expected = "{\"orderId\":1}\n{\"orderId\":2}\n";
+        Mockito.doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write(expected.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(service).export(any());
+
+        //When
+        MvcResult started = mockMvc.perform(get("/order/export"))
+                .andReturn();
+        String result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        //Then
+        Mockito.verify(service).export(any());
+        assertThat(result).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("rejects anonymous users")
+    void anonymous() throws Exception {
+        //When
+        mockMvc.perform(get("/order/export"))
+                .andExpect(status().isUnauthorized());
+
+        //Then
+        Mockito.verifyNoInteractions(service);
+    }
+}
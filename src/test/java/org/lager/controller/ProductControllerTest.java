@@ -7,10 +7,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.lager.cache.CacheStats;
+import org.lager.cache.LookupStats;
 import org.lager.exception.NoSuchProductException;
+import org.lager.exception.PageIllegalLimitException;
 import org.lager.exception.ProductIllegalIdException;
 import org.lager.exception.ProductIllegalNameException;
+import org.lager.model.dto.IdPageDto;
+import org.lager.model.dto.ProductChangesDto;
 import org.lager.model.dto.ProductDto;
+import org.lager.model.dto.ProductJson;
 import org.lager.security.JwtTokenProvider;
 import org.lager.security.SecurityFilterConfig;
 import org.lager.service.ProductService;
@@ -19,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -30,6 +37,7 @@ import static org.lager.ProductFixtures.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
@@ -48,7 +56,7 @@ class ProductControllerTest implements WithAssertions {
 
     @BeforeEach
     void init () {
-        Mockito.when(tokenProvider.getUser(anyString()))
+        Mockito.when(tokenProvider.getAuthentication(anyString()))
                 .thenReturn(Optional.empty());
     }
 
@@ -93,6 +101,102 @@ class ProductControllerTest implements WithAssertions {
         }
     }
 
+    @Nested
+    @DisplayName("calls getIds")
+    class getIds {
+
+        @Test
+        @DisplayName("and gets a page with a next cursor")
+        void pageWithCursor() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenReturn(new IdPageDto(List.of(defaultProductId()), defaultProductId()));
+            String expected = "{\"ids\":[" + defaultProductId() + "],\"nextCursor\":" + defaultProductId() + "}";
+
+            //When
+            String result = mockMvc.perform(get("/product").param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            Mockito.verify(service).getIds(0, 1);
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and gets the largest page after a cursor without limit")
+        void cursorWithoutLimit() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenReturn(new IdPageDto(List.of(anotherProductId()), null));
+
+            //When
+            mockMvc.perform(get("/product").param("after", String.valueOf(defaultProductId())))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("{\"ids\":[" + anotherProductId() + "],\"nextCursor\":null}"));
+
+            //Then
+            Mockito.verify(service).getIds(defaultProductId(), IdPageDto.MAX_LIMIT);
+            Mockito.verify(service, Mockito.never()).getAllIds();
+        }
+
+        @Test
+        @DisplayName("and throws an Exception when limit is incorrect")
+        void incorrectLimit() throws Exception {
+            //Given
+            Mockito.when(service.getIds(anyLong(), anyInt()))
+                    .thenThrow(PageIllegalLimitException.class);
+
+            //When
+            mockMvc.perform(get("/product").param("after", String.valueOf(anotherProductId())).param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+
+            //Then
+            Mockito.verify(service).getIds(anotherProductId(), 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("calls getChanges")
+    class getChanges {
+
+        @Test
+        @DisplayName("and gets changed and deleted products since a version")
+        void changesSince() throws Exception {
+            //Given
+            Mockito.when(service.getChanges(anyLong(), anyInt()))
+                    .thenReturn(new ProductChangesDto(List.of(new ProductDto(defaultProduct())), List.of(anotherProductId()), 5, false));
+            String expected = "{\"changed\":[{\"productId\":" + defaultProductId()
+                    + ",\"productName\":\"" + defaultProductName()
+                    + "\",\"productPrice\":" + defaultProductPrice()
+                    + ",\"version\":0}],\"deleted\":[" + anotherProductId() + "],\"version\":5,\"more\":false}";
+
+            //When
+            String result = mockMvc.perform(get("/product/changes").param("since", "3"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            Mockito.verify(service).getChanges(3, 1000);
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and throws an Exception when limit is incorrect")
+        void incorrectLimit() throws Exception {
+            //Given
+            Mockito.when(service.getChanges(anyLong(), anyInt()))
+                    .thenThrow(PageIllegalLimitException.class);
+
+            //When
+            mockMvc.perform(get("/product/changes").param("since", "3").param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+
+            //Then
+            Mockito.verify(service).getChanges(3, 0);
+        }
+    }
+
     @Nested
     @DisplayName("posts create")
     class createProduct {
@@ -149,6 +253,72 @@ class ProductControllerTest implements WithAssertions {
         }
     }
 
+    @Nested
+    @DisplayName("calls getCacheStats")
+    class getCacheStats {
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("and gets the counters as an admin")
+        void admin() throws Exception {
+            //Given
+            Mockito.when(service.getCacheStats()).thenReturn(new CacheStats(3, 2, 1, 1));
+            String expected = "{\"hits\":3,\"misses\":2,\"evictions\":1,\"size\":1}";
+
+            //When
+            String result = mockMvc.perform(get("/product/cache-stats"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and is forbidden for a user")
+        void user() throws Exception {
+            //When
+            mockMvc.perform(get("/product/cache-stats"))
+                    .andExpect(status().isForbidden());
+
+            //Then
+            Mockito.verify(service, Mockito.never()).getCacheStats();
+        }
+    }
+
+    @Nested
+    @DisplayName("calls getLookupStats")
+    class getLookupStats {
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("and gets the counters as an admin")
+        void admin() throws Exception {
+            //Given
+            Mockito.when(service.getLookupStats()).thenReturn(new LookupStats(5, 40));
+            String expected = "{\"calls\":5,\"collapsed\":40}";
+
+            //When
+            String result = mockMvc.perform(get("/product/lookup-stats"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            //Then
+            assertThat(result).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("and is forbidden for a user")
+        void user() throws Exception {
+            //When
+            mockMvc.perform(get("/product/lookup-stats"))
+                    .andExpect(status().isForbidden());
+
+            //Then
+            Mockito.verify(service, Mockito.never()).getLookupStats();
+        }
+    }
+
     @Nested
     @DisplayName("calls get")
     class getProduct {
@@ -157,26 +327,47 @@ class ProductControllerTest implements WithAssertions {
         @DisplayName("and gets a product")
         void properCase() throws Exception {
             //Given
-            Mockito.when(service.get(anyLong()))
-                    .thenReturn(new ProductDto(defaultProduct()));
             ProductDto expected = new ProductDto(defaultProduct());
+            Mockito.when(service.getJson(anyLong()))
+                    .thenReturn(new ProductJson("0", new ObjectMapper().writeValueAsBytes(expected)));
 
             //When
             ProductDto result = productDtoOf(
                     mockMvc.perform(get("/product/{productId}", defaultProductId()))
                             .andExpect(status().isOk())
+                            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                            .andExpect(header().string("ETag", "\"0\""))
+                            .andExpect(header().string("Cache-Control", "no-cache, private"))
                             .andReturn());
 
             //Then
-            Mockito.verify(service).get(defaultProductId());
+            Mockito.verify(service).getJson(defaultProductId());
             assertThat(result).isEqualTo(expected);
         }
 
+        @Test
+        @DisplayName("and gets Not Modified when the ETag matches")
+        void notModified() throws Exception {
+            //Given
+            Mockito.when(service.getJson(anyLong()))
+                    .thenReturn(new ProductJson("0", new ObjectMapper().writeValueAsBytes(new ProductDto(defaultProduct()))));
+
+            //When
+            MvcResult result = mockMvc.perform(get("/product/{productId}", defaultProductId())
+                            .header("If-None-Match", "\"0\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", "\"0\""))
+                    .andReturn();
+
+            //Then
+            assertThat(result.getResponse().getContentLength()).isZero();
+        }
+
         @Test
         @DisplayName("and throws an Exception when product doesn't exists")
         void nonExisting() throws Exception {
             //Given
-            Mockito.when(service.get(anyLong()))
+            Mockito.when(service.getJson(anyLong()))
                     .thenThrow(NoSuchProductException.class);
 
             //When
@@ -185,7 +376,7 @@ class ProductControllerTest implements WithAssertions {
                     .andReturn();
 
             //Then
-            Mockito.verify(service).get(defaultProductId());
+            Mockito.verify(service).getJson(defaultProductId());
         }
     }
 
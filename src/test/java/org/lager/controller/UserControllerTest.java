@@ -43,7 +43,7 @@ class UserControllerTest {
 
     @BeforeEach
     void init () {
-        Mockito.when(tokenProvider.getUser(anyString()))
+        Mockito.when(tokenProvider.getAuthentication(anyString()))
                 .thenReturn(Optional.empty());
     }
 
@@ -222,4 +222,58 @@ class UserControllerTest {
             Mockito.verify(service).deleteUser(userDto.login());
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("revokes tokens of a user")
+    class RevokeTokensTest {
+
+        @Test
+        @DisplayName("but is forbidden")
+        @WithMockUser
+        void forbidden() throws Exception {
+            //When
+            mockMvc.perform(delete("/user/tokens"))
+                    .andExpect(status().isForbidden());
+
+            //Then
+            Mockito.verify(service, Mockito.never()).revokeTokens(any());
+        }
+
+        @Test
+        @DisplayName("and revokes them")
+        @WithMockUser(roles = {"ADMIN"})
+        void properCase() throws Exception {
+            //Given
+            Mockito.doNothing().when(service).revokeTokens(any());
+            UserDto userDto = new UserDto("validLogin", "");
+
+            //When
+            mockMvc.perform(delete("/user/tokens")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"login\":\"" + userDto.login() + "\", \"password\":\"" + userDto.password() + "\"}"))
+                    .andExpect(status().isAccepted());
+
+            //Then
+            Mockito.verify(service).revokeTokens(userDto.login());
+        }
+
+        @Test
+        @DisplayName("and throws exception when login is incorrect")
+        @WithMockUser(roles = {"ADMIN"})
+        void incorrectLogin() throws Exception {
+            //Given
+            Mockito.doThrow(UserIllegalLoginException.class).
+                    when(service).revokeTokens(any());
+            UserDto userDto = new UserDto("", "");
+
+            //When
+            mockMvc.perform(delete("/user/tokens")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"login\":\"" + userDto.login() + "\", \"password\":\"" + userDto.password() + "\"}"))
+                    .andExpect(status().isBadRequest());
+
+            //Then
+            Mockito.verify(service).revokeTokens(userDto.login());
+        }
+    }
+}
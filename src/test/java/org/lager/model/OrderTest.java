@@ -14,7 +14,6 @@ import java.util.List;
 class OrderTest implements WithAssertions {
 
     final long VALID_ID = 1234;
-    final long INVALID_ID = 12345;
     final long CUSTOMER_ID = 123_123_123L;
     final OrderItem ITEM_1 = new OrderItem(123_123_123, 3);
     final OrderItem ITEM_2 = new OrderItem(123_456_789, 5);
@@ -25,16 +24,16 @@ class OrderTest implements WithAssertions {
     class OrderThrowsException {
 
         @Test
-        @DisplayName("created with invalid ID (too high)")
-        void toHightId() {
-            assertThatThrownBy(() -> new Order(INVALID_ID, CUSTOMER_ID, VALID_ITEM_LIST))
+        @DisplayName("created without ID")
+        void zeroId() {
+            assertThatThrownBy(() -> new Order(0, CUSTOMER_ID, VALID_ITEM_LIST))
                     .isInstanceOf(OrderIllegalIdException.class);
         }
 
         @Test
-        @DisplayName("created with invalid ID (too low)")
-        void toLowId() {
-            assertThatThrownBy(() -> new Order(1, CUSTOMER_ID, VALID_ITEM_LIST))
+        @DisplayName("created with invalid ID (negative)")
+        void negativeId() {
+            assertThatThrownBy(() -> new Order(-1, CUSTOMER_ID, VALID_ITEM_LIST))
                     .isInstanceOf(OrderIllegalIdException.class);
         }
 
@@ -201,8 +200,8 @@ class OrderTest implements WithAssertions {
     @Test
     @DisplayName("to String")
     void orderToStringTest() {
-        Order order = new Order(VALID_ID, List.of(ITEM_1));
+        Order order = new Order(VALID_ID, CUSTOMER_ID, List.of(ITEM_1));
 
-        assertThat(order.toString()).isEqualTo("Order{orderId=0, customerId=1234, items=[OrderItem[productId=123123123, amount=3]]}");
+        assertThat(order.toString()).isEqualTo("Order{orderId=1234, customerId=123123123, items=[OrderItem[productId=123123123, amount=3]]}");
     }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package org.lager.repository;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.lager.model.Basket;
+import org.lager.model.BasketItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.lager.BasketFixtures.*;
+import static org.lager.CustomerFixtures.anotherCustomerId;
+import static org.lager.CustomerFixtures.defaultCustomerId;
+import static org.lager.ProductFixtures.anotherProductId;
+import static org.lager.ProductFixtures.defaultProductId;
+
+@DataJpaTest
+@Import(BasketDocumentStore.class)
+@TestPropertySource(properties = "basket.storage=document")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("Basket Document Store")
+class BasketDocumentStoreTest implements WithAssertions {
+
+    @Autowired
+    BasketDocumentStore store;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("saves and reads two baskets")
+    void findByCustomerId() {
+        //Given
+        Basket saved1 = store.save(defaultNewBasket());
+        Basket saved2 = store.save(anotherNewBasket());
+
+        //When
+        Optional<Basket> result1 = store.findByCustomerId(defaultCustomerId());
+        Optional<Basket> result2 = store.findByCustomerId(anotherCustomerId());
+
+        //Then
+        assertThat(result1).isEqualTo(Optional.of(saved1));
+        assertThat(result2).isEqualTo(Optional.of(saved2));
+        assertThat(result1.orElseThrow().getContent()).isEqualTo(basketContentOf(defaultBasket()));
+        assertThat(result2.orElseThrow().getContent()).isEqualTo(basketContentOf(anotherBasket()));
+    }
+
+    @Test
+    @DisplayName("keeps items in the BASKETS row only")
+    void singleRow() {
+        //When
+        store.save(anotherNewBasket());
+
+        //Then
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BASKET_ITEMS", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BASKETS", Integer.class)).isOne();
+    }
+
+    @Test
+    @DisplayName("overrides existing Basket")
+    void overridesExisting() {
+        //Given
+        Basket saved = store.save(anotherNewBasket());
+        Basket changed = new Basket(saved.getBasketId(), anotherCustomerId(), Map.of());
+        changed.insert(anotherProductId(), 3);
+
+        // When
+        store.save(changed);
+        Optional<Basket> result = store.findByCustomerId(anotherCustomerId());
+
+        //Then
+        assertThat(result).isEqualTo(Optional.of(changed));
+    }
+
+    @Test
+    @DisplayName("lists customers' IDs, also after a cursor")
+    void getIds() {
+        //Given
+        store.save(defaultNewBasket());
+        store.save(anotherNewBasket());
+
+        // When
+        List<Long> all = store.getAllIds();
+        List<Long> after = store.getIdsAfter(defaultCustomerId(), Limit.of(10));
+
+        //Then
+        assertThat(all).isEqualTo(List.of(defaultCustomerId(), anotherCustomerId()));
+        assertThat(after).isEqualTo(List.of(anotherCustomerId()));
+    }
+
+    @Test
+    @DisplayName("deletes one Basket")
+    void deleteByCustomerId() {
+        //Given
+        store.save(defaultNewBasket());
+        store.save(anotherNewBasket());
+
+        // When
+        store.deleteByCustomerId(defaultCustomerId());
+
+        //Then
+        assertThat(store.getAllIds()).isEqualTo(List.of(anotherCustomerId()));
+        assertThat(store.findBasketIdByCustomerId(defaultCustomerId())).isEmpty();
+    }
+
+    @Nested
+    @DisplayName("calls addItem")
+    class AddItem {
+
+        @Test
+        @DisplayName("and inserts a new line into an empty Basket")
+        void newLine() {
+            //Given
+            long basketId = store.save(defaultNewEmptyBasket()).getBasketId();
+
+            // When
+            BasketItem result = store.addItem(basketId, defaultProductId(), 1);
+
+            //Then
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 1));
+            assertThat(store.findByCustomerId(defaultCustomerId()).orElseThrow().getContent())
+                    .isEqualTo(basketContentOf(defaultBasket()));
+        }
+
+        @Test
+        @DisplayName("and increments an existing line")
+        void existingLine() {
+            //Given
+            long basketId = store.save(anotherNewBasket()).getBasketId();
+
+            // When
+            BasketItem result = store.addItem(basketId, defaultProductId(), 2);
+
+            //Then
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 4));
+            assertThat(store.findByCustomerId(anotherCustomerId()).orElseThrow().getAmountOf(defaultProductId())).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("and removes a line which drops to zero")
+        void removesLine() {
+            //Given
+            long basketId = store.save(defaultNewBasket()).getBasketId();
+
+            // When
+            BasketItem result = store.addItem(basketId, defaultProductId(), -1);
+
+            //Then
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 0));
+            assertThat(store.findByCustomerId(defaultCustomerId()).orElseThrow().getContent()).isEmpty();
+        }
+    }
+}
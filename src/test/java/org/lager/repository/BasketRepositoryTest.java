@@ -1,12 +1,19 @@
 package org.lager.repository;
 
 import org.assertj.core.api.WithAssertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.lager.model.Basket;
+import org.lager.model.BasketItem;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.annotation.DirtiesContext;
 
 import java.util.List;
@@ -16,6 +23,7 @@ import static org.lager.BasketFixtures.*;
 import static org.lager.CustomerFixtures.anotherCustomerId;
 import static org.lager.CustomerFixtures.defaultCustomerId;
 import static org.lager.ProductFixtures.anotherProductId;
+import static org.lager.ProductFixtures.defaultProductId;
 
 @DataJpaTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -24,6 +32,26 @@ class BasketRepositoryTest implements WithAssertions {
 
     @Autowired
     BasketRepository repository;
+    @Autowired
+    TestEntityManager entityManager;
+
+    Statistics statistics;
+    boolean statisticsEnabled;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void restoreStatistics() {
+        statistics.clear();
+        statistics.setStatisticsEnabled(statisticsEnabled);
+    }
 
     @Test
     @DisplayName("saves and reads two baskets")
@@ -75,6 +103,20 @@ class BasketRepositoryTest implements WithAssertions {
 
     }
 
+    @Test
+    @DisplayName("calls getIdsAfter and gets customers' IDs after the cursor")
+    void getIdsAfter() {
+        //Given
+        repository.save(defaultNewBasket());
+        repository.save(anotherNewBasket());
+
+        // When
+        List<Long> result = repository.getIdsAfter(defaultCustomerId(), Limit.of(10));
+
+        //Then
+        assertThat(result).isEqualTo(List.of(anotherCustomerId()));
+    }
+
     @Test
     @DisplayName("deletes one Basket and calls getAllIds")
     void deleteByCustomerId() {
@@ -105,4 +147,121 @@ class BasketRepositoryTest implements WithAssertions {
         //Then
         assertThat(result).isEqualTo(Optional.of(anotherBasketWith(anotherProductId(),3 )));
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("calls addItem")
+    class AddItem {
+
+        @Test
+        @DisplayName("and inserts a new line into an empty Basket")
+        void newLine() {
+            //Given
+            long basketId = repository.saveAndFlush(defaultNewEmptyBasket()).getBasketId();
+
+            // When
+            BasketItem result = repository.addItem(basketId, defaultProductId(), 1);
+            entityManager.clear();
+
+            //Then
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 1));
+            assertThat(repository.findByCustomerId(defaultCustomerId())).isEqualTo(Optional.of(defaultBasket()));
+        }
+
+        @Test
+        @DisplayName("and increments an existing line")
+        void existingLine() {
+            //Given
+            long basketId = repository.saveAndFlush(defaultNewBasket()).getBasketId();
+
+            // When
+            BasketItem result = repository.addItem(basketId, defaultProductId(), 2);
+            entityManager.clear();
+
+            //Then
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 3));
+            assertThat(repository.findByCustomerId(defaultCustomerId()))
+                    .isEqualTo(Optional.of(defaultBasketWith(defaultProductId(), 3)));
+        }
+
+        @Test
+        @DisplayName("and removes a line which drops to zero")
+        void removesLine() {
+            //Given
+            long basketId = repository.saveAndFlush(defaultNewBasket()).getBasketId();
+
+            // When
+            BasketItem result = repository.addItem(basketId, defaultProductId(), -1);
+            entityManager.clear();
+
+            //Then
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 0));
+            assertThat(repository.findByCustomerId(defaultCustomerId())).isEqualTo(Optional.of(defaultEmptyBasket()));
+        }
+
+        @Test
+        @DisplayName("and does not keep a negative new line")
+        void negativeNewLine() {
+            //Given
+            long basketId = repository.saveAndFlush(defaultNewEmptyBasket()).getBasketId();
+
+            // When
+            BasketItem result = repository.addItem(basketId, defaultProductId(), -5);
+            entityManager.clear();
+
+            //Then
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 0));
+            assertThat(repository.findByCustomerId(defaultCustomerId())).isEqualTo(Optional.of(defaultEmptyBasket()));
+        }
+    }
+
+    @Test
+    @DisplayName("finds a Basket's ID by its Customer")
+    void findBasketIdByCustomerId() {
+        //Given
+        repository.save(defaultNewBasket());
+
+        // When
+        Optional<Long> result = repository.findBasketIdByCustomerId(defaultCustomerId());
+        Optional<Long> missing = repository.findBasketIdByCustomerId(anotherCustomerId());
+
+        //Then
+        assertThat(result).isEqualTo(Optional.of(defaultBasket().getBasketId()));
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    @DisplayName("writes a large Basket's items in batches")
+    void batchedItems() {
+        //Given
+        Basket basket = new Basket(defaultCustomerId());
+        for (long productId = 1; productId <= 200; productId++)
+            basket.insert(productId, 1);
+        statistics.clear();
+
+        // When
+        repository.saveAndFlush(basket);
+
+        //Then
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("bulk-deletes Baskets with their items without loading them")
+    void deleteAllByCustomerIdIn() {
+        //Given
+        repository.save(defaultNewBasket());
+        repository.save(anotherNewBasket());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        int deleted = repository.deleteAllByCustomerIdIn(List.of(defaultCustomerId(), anotherCustomerId()));
+
+        //Then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(repository.getAllIds()).isEmpty();
+    }
+}
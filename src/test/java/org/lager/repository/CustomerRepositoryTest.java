@@ -3,19 +3,26 @@ package org.lager.repository;
 import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.lager.model.IdAllocation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
 
 import java.util.List;
 
 import static org.lager.CustomerFixtures.*;
 
 @DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @DisplayName("Customer Repository calls getAllId")
 class CustomerRepositoryTest implements WithAssertions {
 
     @Autowired
     CustomerRepository repository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
 
     @Test
     @DisplayName("and should get an empty List")
@@ -44,4 +51,51 @@ class CustomerRepositoryTest implements WithAssertions {
         //Then
         assertThat(result).isEqualTo(expected);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("pages through IDs after a cursor")
+    void pagesAfterCursor() {
+        //Given
+        repository.save(defaultNewCustomer());
+        repository.save(anotherNewCustomer());
+
+        //When
+        List<Long> firstPage = repository.getIdsAfter(0, Limit.of(1));
+        List<Long> secondPage = repository.getIdsAfter(firstPage.getLast(), Limit.of(1));
+
+        //Then
+        assertThat(firstPage).isEqualTo(List.of(defaultCustomerId()));
+        assertThat(secondPage).isEqualTo(List.of(anotherCustomerId()));
+    }
+
+    @Test
+    @DisplayName("reserves IDs from the sequence in blocks")
+    void allocatesInBlocks() {
+        //Given
+        repository.save(defaultNewCustomer());
+        repository.save(anotherNewCustomer());
+
+        //When
+        long nextBlock = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'CUSTOMER_KEY'", Long.class);
+
+        //Then
+        assertThat(nextBlock).isEqualTo(defaultCustomerId() + IdAllocation.BLOCK_SIZE);
+    }
+
+    @Test
+    @DisplayName("after bulk-deleting customers")
+    void deleteAllByCustomerIdIn() {
+        //Given
+        repository.save(defaultNewCustomer());
+        repository.save(anotherNewCustomer());
+
+        //When
+        int deleted = repository.deleteAllByCustomerIdIn(List.of(defaultCustomerId(), incorrectCustomerId()));
+        List<Long> result = repository.getAllIds();
+
+        //Then
+        assertThat(deleted).isOne();
+        assertThat(result).isEqualTo(List.of(anotherCustomerId()));
+    }
+}
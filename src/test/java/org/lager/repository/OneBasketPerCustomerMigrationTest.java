@@ -0,0 +1,94 @@
+package org.lager.repository;
+
+import org.assertj.core.api.WithAssertions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lager.model.BasketItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.Map;
+
+@JdbcTest
+@Import(OneBasketPerCustomerMigrationTest.DuplicateBaskets.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@DisplayName("One Basket per Customer migration")
+class OneBasketPerCustomerMigrationTest implements WithAssertions {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // Customer 1 got three baskets from concurrent first additions, Customer 2 just one;
+    // Customers 4 and 5 got two document baskets each (basket.storage=document)
+    @TestConfiguration
+    static class DuplicateBaskets {
+
+        private static byte[] document(BasketItem... items) {
+            return BasketItemsCodec.encode(List.of(items));
+        }
+
+        @Bean
+        FlywayMigrationStrategy migrateAroundDuplicateBaskets() {
+            return flyway -> {
+                Flyway.configure().configuration(flyway.getConfiguration()).target("11").load().migrate();
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                jdbcTemplate.batchUpdate("INSERT INTO BASKETS (BASKET_ID, CUSTOMER_ID) VALUES (?, ?)",
+                        List.of(new Object[]{10, 1}, new Object[]{11, 1}, new Object[]{12, 1}, new Object[]{20, 2}));
+                jdbcTemplate.batchUpdate("INSERT INTO BASKET_ITEMS (BASKET_ID, MAP_KEY, PRODUCT_ID, AMOUNT) VALUES (?, ?, ?, ?)",
+                        List.of(new Object[]{10, 100, 100, 1}, new Object[]{11, 100, 100, 2},
+                                new Object[]{11, 200, 200, 3}, new Object[]{12, 200, 200, 4},
+                                new Object[]{20, 100, 100, 5}));
+                jdbcTemplate.batchUpdate("INSERT INTO BASKETS (BASKET_ID, CUSTOMER_ID, ITEMS) VALUES (?, ?, ?)",
+                        List.of(new Object[]{40, 4, document(new BasketItem(100, 1))},
+                                new Object[]{41, 4, document(new BasketItem(100, 2), new BasketItem(200, 4))},
+                                new Object[]{50, 5, null},
+                                new Object[]{51, 5, document(new BasketItem(300, 2))}));
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Test
+    @DisplayName("keeps the oldest Basket with the items of all")
+    void mergesDuplicates() {
+        //When
+        List<Map<String, Object>> baskets = jdbcTemplate.queryForList("SELECT BASKET_ID, CUSTOMER_ID FROM BASKETS ORDER BY BASKET_ID");
+        List<Map<String, Object>> items = jdbcTemplate.queryForList(
+                "SELECT BASKET_ID, PRODUCT_ID, AMOUNT FROM BASKET_ITEMS ORDER BY BASKET_ID, PRODUCT_ID");
+
+        //Then
+        assertThat(baskets).extracting(basket -> basket.get("BASKET_ID")).containsExactly(10L, 20L, 40L, 50L);
+        assertThat(items).extracting(item -> List.of(item.get("BASKET_ID"), item.get("PRODUCT_ID"), item.get("AMOUNT")))
+                .containsExactly(List.of(10L, 100L, 3), List.of(10L, 200L, 7), List.of(20L, 100L, 5));
+    }
+
+    @Test
+    @DisplayName("keeps the oldest document Basket with the items of all")
+    void mergesDuplicateDocuments() {
+        //When
+        Map<Long, BasketItem> kept = BasketItemsCodec.decode(
+                jdbcTemplate.queryForObject("SELECT ITEMS FROM BASKETS WHERE BASKET_ID = 40", byte[].class));
+        Map<Long, BasketItem> keptOfEmpty = BasketItemsCodec.decode(
+                jdbcTemplate.queryForObject("SELECT ITEMS FROM BASKETS WHERE BASKET_ID = 50", byte[].class));
+
+        //Then
+        assertThat(kept).containsOnly(entry(100L, new BasketItem(100, 3)), entry(200L, new BasketItem(200, 4)));
+        assertThat(keptOfEmpty).containsOnly(entry(300L, new BasketItem(300, 2)));
+    }
+
+    @Test
+    @DisplayName("rejects a second Basket of a Customer")
+    void uniqueCustomer() {
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> jdbcTemplate.update("INSERT INTO BASKETS (BASKET_ID, CUSTOMER_ID) VALUES (30, 2)"));
+    }
+}
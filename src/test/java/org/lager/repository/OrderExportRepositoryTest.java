@@ -0,0 +1,55 @@
+package org.lager.repository;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lager.model.dto.OrderDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.lager.OrderFixtures.*;
+
+@DataJpaTest
+@Import(OrderExportRepository.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("Order Export Repository")
+class OrderExportRepositoryTest implements WithAssertions {
+
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    OrderExportRepository repository;
+
+    @Test
+    @DisplayName("walks no orders in an empty DB")
+    void emptyDB() {
+        //Given
+        List<OrderDto> result = new ArrayList<>();
+
+        //When
+        repository.forEachOrder(result::add);
+
+        //Then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    @DisplayName("walks every order with all its items")
+    void savesAndWalks() {
+        //Given
+        orderRepository.saveAndFlush(defaultOrder());
+        orderRepository.saveAndFlush(anotherOrder());
+        List<OrderDto> result = new ArrayList<>();
+
+        //When
+        repository.forEachOrder(result::add);
+
+        //Then
+        assertThat(result).containsExactly(new OrderDto(defaultOrder()), new OrderDto(anotherOrder()));
+    }
+}
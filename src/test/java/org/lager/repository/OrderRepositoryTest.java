@@ -5,12 +5,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.annotation.DirtiesContext;
 
 import java.util.List;
 
 import static org.lager.OrderFixtures.*;
 
 @DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @DisplayName("Order Repository calls GetAllIds")
 class OrderRepositoryTest implements WithAssertions {
 
@@ -34,8 +37,8 @@ class OrderRepositoryTest implements WithAssertions {
     @DisplayName("but first saves two Customers")
     void savesAndReadsList() {
         //Given
-        repository.save(defaultNewOrder());
-        repository.save(anotherNewOrder());
+        repository.save(defaultOrder());
+        repository.save(anotherOrder());
         List<Long> expected = List.of(defaultOrderId(), anotherOrderId());
 
         //When
@@ -44,4 +47,20 @@ class OrderRepositoryTest implements WithAssertions {
         //Then
         assertThat(result).isEqualTo(expected);
     }
+
+    @Test
+    @DisplayName("pages through IDs after a cursor")
+    void pagesAfterCursor() {
+        //Given
+        repository.save(defaultOrder());
+        repository.save(anotherOrder());
+
+        //When
+        List<Long> firstPage = repository.getIdsAfter(0, Limit.of(1));
+        List<Long> secondPage = repository.getIdsAfter(firstPage.getLast(), Limit.of(1));
+
+        //Then
+        assertThat(firstPage).isEqualTo(List.of(defaultOrderId()));
+        assertThat(secondPage).isEqualTo(List.of(anotherOrderId()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package org.lager.repository;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lager.model.Product;
+import org.lager.model.ProductChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+
+import static org.lager.ProductFixtures.*;
+
+@DataJpaTest
+@Import(ProductChangeLog.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("Product change log")
+class ProductChangeLogTest implements WithAssertions {
+
+    @Autowired
+    ProductChangeLog changeLog;
+    @Autowired
+    ProductChangeRepository changes;
+    @Autowired
+    ProductRepository products;
+
+    @Test
+    @DisplayName("records each save with the next catalog version")
+    void recordsSaves() {
+        //Given
+        long start = changes.getCatalogVersion();
+
+        //When
+        changeLog.save(defaultNewProduct());
+        changeLog.save(anotherProduct());
+
+        //Then
+        assertThat(changeLog.findSince(start, 10)).containsExactly(
+                new ProductChange(defaultProductId(), start + 1, false),
+                new ProductChange(anotherProductId(), start + 2, false));
+    }
+
+    @Test
+    @DisplayName("keeps only the latest change of a Product")
+    void keepsLatest() {
+        //Given
+        long start = changes.getCatalogVersion();
+        Product product = changeLog.save(defaultNewProduct());
+        changeLog.save(anotherProduct());
+
+        //When
+        product.setProductName("new Name");
+        changeLog.save(product);
+
+        //Then
+        assertThat(changeLog.findSince(start, 10)).containsExactly(
+                new ProductChange(anotherProductId(), start + 2, false),
+                new ProductChange(defaultProductId(), start + 3, false));
+    }
+
+    @Test
+    @DisplayName("leaves a tombstone of a deleted Product")
+    void leavesTombstone() {
+        //Given
+        long start = changes.getCatalogVersion();
+        changeLog.save(defaultNewProduct());
+
+        //When
+        changeLog.deleteById(defaultProductId());
+
+        //Then
+        assertThat(products.findById(defaultProductId())).isEmpty();
+        assertThat(changeLog.findSince(start, 10)).containsExactly(
+                new ProductChange(defaultProductId(), start + 2, true));
+    }
+
+    @Test
+    @DisplayName("records nothing when deleting a non-existing Product")
+    void ignoresNonExisting() {
+        //Given
+        long start = changes.getCatalogVersion();
+
+        //When
+        changeLog.deleteById(defaultProductId());
+
+        //Then
+        assertThat(changeLog.findSince(start, 10)).isEmpty();
+        assertThat(changes.getCatalogVersion()).isEqualTo(start);
+    }
+
+    @Test
+    @DisplayName("lists changes after a version, up to a limit")
+    void listsAfterVersion() {
+        //Given
+        long start = changes.getCatalogVersion();
+        changeLog.save(defaultNewProduct());
+        changeLog.save(anotherProduct());
+
+        //When
+        List<ProductChange> result = changeLog.findSince(start + 1, 1);
+
+        //Then
+        assertThat(result).containsExactly(new ProductChange(anotherProductId(), start + 2, false));
+    }
+}
@@ -0,0 +1,68 @@
+package org.lager.repository;
+
+import org.assertj.core.api.WithAssertions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lager.model.ProductChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+@DataJpaTest
+@Import({ProductChangeLog.class, ProductChangesBackfillTest.ProductsBeforeChangeLog.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@DisplayName("Product change log backfill")
+class ProductChangesBackfillTest implements WithAssertions {
+
+    private static final int EXISTING = 7;
+
+    @Autowired
+    ProductChangeLog changeLog;
+    @Autowired
+    ProductChangeRepository changes;
+
+    // products stored before the change log existed, so its migration has to backfill them
+    @TestConfiguration
+    static class ProductsBeforeChangeLog {
+
+        @Bean
+        FlywayMigrationStrategy migrateAroundExistingProducts() {
+            return flyway -> {
+                Flyway.configure().configuration(flyway.getConfiguration()).target("8").load().migrate();
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                LongStream.rangeClosed(1, EXISTING).forEach(id ->
+                        jdbcTemplate.update("INSERT INTO PRODUCTS (PRODUCT_ID, PRODUCT_NAME) VALUES (?, ?)", id, "Product " + id));
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Test
+    @DisplayName("gives existing Products versions of their own, so paging from 0 finds all of them")
+    void pagesThroughBackfill() {
+        //Given
+        List<Long> found = new ArrayList<>();
+        long since = 0;
+
+        //When
+        List<ProductChange> page;
+        while (!(page = changeLog.findSince(since, 3)).isEmpty()) {
+            page.forEach(change -> found.add(change.getProductId()));
+            since = page.getLast().getChangeVersion();
+        }
+
+        //Then
+        assertThat(found).containsExactlyElementsOf(LongStream.rangeClosed(1, EXISTING).boxed().toList());
+        assertThat(changes.getCatalogVersion()).isEqualTo(EXISTING);
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.lager.model.Product;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.annotation.DirtiesContext;
 
 import java.util.List;
@@ -71,6 +72,39 @@ class ProductRepositoryTest implements WithAssertions {
         }
     }
 
+    @Nested
+    @DisplayName("calls getIdsAfter")
+    class GetIdsAfter {
+
+        @Test
+        @DisplayName("and gets the first page with a limit")
+        void firstPage() {
+            //Given
+            repository.save(defaultProduct());
+            repository.save(anotherProduct());
+
+            // When
+            List<Long> result = repository.getIdsAfter(0, Limit.of(1));
+
+            //Then
+            assertThat(result).isEqualTo(List.of(defaultProductId()));
+        }
+
+        @Test
+        @DisplayName("and gets only IDs after the cursor")
+        void nextPage() {
+            //Given
+            repository.save(defaultProduct());
+            repository.save(anotherProduct());
+
+            // When
+            List<Long> result = repository.getIdsAfter(defaultProductId(), Limit.of(10));
+
+            //Then
+            assertThat(result).isEqualTo(List.of(anotherProductId()));
+        }
+    }
+
     @Test
     @DisplayName("deletes one Product and calls getAllIds")
     void delete() {
@@ -0,0 +1,25 @@
+package org.lager.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(QueryPlans.Recording.class)
+@DisplayName("Query plans on H2")
+class QueryPlanH2Test extends QueryPlans {
+
+    @Override
+    List<String> explain(String sql, Object[] parameters) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    @Override
+    boolean scansTable(String planLine) {
+        return planLine.contains("tableScan");
+    }
+}
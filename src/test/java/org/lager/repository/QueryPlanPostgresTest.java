@@ -0,0 +1,38 @@
+package org.lager.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+// Runs against a local Postgres, e.g. POSTGRES_TEST_URL=jdbc:postgresql://localhost:5432/postgres
+// tables are tiny in a test DB, so the planner is made to pick an index whenever there is one
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TEST_URL", matches = ".+")
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=${POSTGRES_TEST_URL}",
+        "spring.datasource.username=${POSTGRES_TEST_USER:postgres}",
+        "spring.datasource.password=${POSTGRES_TEST_PASSWORD:admin}",
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.hikari.connection-init-sql=SET enable_seqscan = off"})
+@Import(QueryPlans.Recording.class)
+@DisplayName("Query plans on Postgres")
+class QueryPlanPostgresTest extends QueryPlans {
+
+    @Override
+    List<String> explain(String sql, Object[] parameters) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    @Override
+    boolean scansTable(String planLine) {
+        return planLine.contains("Seq Scan");
+    }
+}
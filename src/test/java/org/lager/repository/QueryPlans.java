@@ -0,0 +1,143 @@
+package org.lager.repository;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.lager.security.JwtKey;
+import org.lager.security.JwtKeyRing;
+import org.lager.security.TokenRevocations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.provisioning.JdbcUserDetailsManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.lager.CustomerFixtures.defaultCustomerId;
+import static org.lager.OrderFixtures.defaultOrderId;
+import static org.lager.ProductFixtures.defaultProductId;
+
+// runs the repositories' own calls and checks the plan of every statement they send that filters rows;
+// statements without a WHERE read a whole table on purpose. Test transactions are looked up on the class declaring
+// the test method, so this one is @Transactional itself
+@Transactional
+abstract class QueryPlans implements WithAssertions {
+    private static final long BASKET_ID = 1;
+
+    @Autowired
+    StatementRecorder recorder;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    ProductChangeRepository productChangeRepository;
+    @Autowired
+    CustomerRepository customerRepository;
+    @Autowired
+    BasketRepository basketRepository;
+    @Autowired
+    OrderRepository orderRepository;
+
+    @TestConfiguration
+    static class Recording {
+
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+
+    interface RepositoryCall {
+        void run(QueryPlans test) throws Exception;
+    }
+
+    abstract List<String> explain(String sql, Object[] parameters);
+
+    abstract boolean scansTable(String planLine);
+
+    static Stream<Arguments> repositoryCalls() {
+        return Stream.of(
+                Arguments.of("Product findById", call(test -> test.productRepository.findById(defaultProductId()))),
+                Arguments.of("Product getIdsAfter", call(test -> test.productRepository.getIdsAfter(0, Limit.of(100)))),
+                Arguments.of("Product changes since", call(test -> test.productChangeRepository
+                        .findByChangeVersionGreaterThanOrderByChangeVersion(0, Limit.of(100)))),
+                Arguments.of("Customer findById", call(test -> test.customerRepository.findById(defaultCustomerId()))),
+                Arguments.of("Customer getIdsAfter", call(test -> test.customerRepository.getIdsAfter(0, Limit.of(100)))),
+                Arguments.of("Customer deleteAllByCustomerIdIn", call(test -> {
+                    test.basketRepository.deleteAllByCustomerIdIn(List.of(defaultCustomerId()));
+                    test.customerRepository.deleteAllByCustomerIdIn(List.of(defaultCustomerId()));
+                })),
+                Arguments.of("Basket findByCustomerId", call(test -> test.basketRepository.findByCustomerId(defaultCustomerId()))),
+                Arguments.of("Basket findBasketIdByCustomerId", call(test -> test.basketRepository.findBasketIdByCustomerId(defaultCustomerId()))),
+                Arguments.of("Basket getIdsAfter", call(test -> test.basketRepository.getIdsAfter(0, Limit.of(100)))),
+                Arguments.of("Basket deleteByCustomerId", call(test -> test.basketRepository.deleteByCustomerId(defaultCustomerId()))),
+                Arguments.of("Order findById", call(test -> test.orderRepository.findById(defaultOrderId()))),
+                Arguments.of("Order getIdsAfter", call(test -> test.orderRepository.getIdsAfter(0, Limit.of(100)))),
+                Arguments.of("User by username", call(test -> new JdbcUserDetailsManager(test.dataSource).loadUserByUsername("admin"))),
+                Arguments.of("Token revocations refresh", call(test -> new TokenRevocations(test.jdbcTemplate).refresh())),
+                Arguments.of("JWT keys retirement", call(test ->
+                        new JwtKeyRing(test.jdbcTemplate, Duration.ofDays(1), Duration.ofMinutes(1)).refresh()))
+        );
+    }
+
+    private static RepositoryCall call(RepositoryCall call) {
+        return call;
+    }
+
+    // inserted beside the persistence context, so that every call reads from the database
+    @BeforeEach
+    void seed() {
+        long now = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO PRODUCTS (PRODUCT_ID, PRODUCT_NAME) VALUES (?, 'Product')", defaultProductId());
+        jdbcTemplate.update("INSERT INTO PRODUCT_CHANGES (PRODUCT_ID, CHANGE_VERSION, DELETED) VALUES (?, 1, FALSE)", defaultProductId());
+        jdbcTemplate.update("INSERT INTO CUSTOMERS (CUSTOMER_ID, CUSTOMER_NAME) VALUES (?, 'Customer')", defaultCustomerId());
+        jdbcTemplate.update("INSERT INTO BASKETS (BASKET_ID, CUSTOMER_ID) VALUES (?, ?)", BASKET_ID, defaultCustomerId());
+        jdbcTemplate.update("INSERT INTO BASKET_ITEMS (BASKET_ID, MAP_KEY, PRODUCT_ID, AMOUNT) VALUES (?, ?, ?, 1)",
+                BASKET_ID, defaultProductId(), defaultProductId());
+        jdbcTemplate.update("INSERT INTO ORDERS (ORDER_ID, CUSTOMER_ID) VALUES (?, ?)", defaultOrderId(), defaultCustomerId());
+        jdbcTemplate.update("INSERT INTO ORDER_ITEMS (ORDER_ID, PRODUCT_ID, AMOUNT) VALUES (?, ?, 1)", defaultOrderId(), defaultProductId());
+        jdbcTemplate.update("INSERT INTO TOKEN_REVOCATIONS (USERNAME, REVOKED_AT) VALUES ('admin', ?)", now);
+        for (Duration age : List.of(Duration.ofDays(2), Duration.ofHours(1), Duration.ofMinutes(10))) {
+            JwtKey key = JwtKey.generate(now - age.toMillis());
+            jdbcTemplate.update("INSERT INTO JWT_KEYS (KID, SECRET, CREATED_AT) VALUES (?, ?, ?)",
+                    key.kid(), Base64.getEncoder().encodeToString(key.secret().getEncoded()), key.createdAt());
+        }
+        recorder.clear();
+    }
+
+    @ParameterizedTest(name = "{0} uses an index")
+    @MethodSource("org.lager.repository.QueryPlans#repositoryCalls")
+    void usesIndex(String name, RepositoryCall call) throws Exception {
+        //When
+        call.run(this);
+        List<StatementRecorder.Recorded> filtering = recorder.recorded().stream()
+                .filter(statement -> filtersRows(statement.sql()))
+                .toList();
+
+        //Then
+        assertThat(filtering).as("statements of " + name).isNotEmpty();
+        for (StatementRecorder.Recorded statement : filtering)
+            assertThat(explain(statement.sql(), statement.parameters().toArray()))
+                    .as(statement.sql())
+                    .noneMatch(this::scansTable);
+    }
+
+    private static boolean filtersRows(String sql) {
+        String normalized = sql.toLowerCase(Locale.ROOT).strip();
+        return (normalized.startsWith("select") || normalized.startsWith("update") || normalized.startsWith("delete"))
+                && normalized.contains(" where ");
+    }
+}
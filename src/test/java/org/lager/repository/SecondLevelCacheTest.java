@@ -0,0 +1,138 @@
+package org.lager.repository;
+
+import org.assertj.core.api.WithAssertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lager.cache.CacheConfig;
+import org.lager.cache.InvalidationBus;
+import org.lager.model.Basket;
+import org.lager.model.CacheRegions;
+import org.lager.model.Customer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.lager.BasketFixtures.defaultNewEmptyBasket;
+import static org.lager.CustomerFixtures.defaultCustomerId;
+import static org.lager.CustomerFixtures.defaultCustomerName;
+import static org.lager.ProductFixtures.defaultNewProduct;
+import static org.lager.ProductFixtures.defaultProductId;
+
+// entries of READ_WRITE regions are only readable by later transactions, so every call here commits on its own
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CacheConfig.class, InvalidationBus.class, BasketRowStore.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("Second-level cache")
+class SecondLevelCacheTest implements WithAssertions {
+
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    CustomerRepository customerRepository;
+    @Autowired
+    BasketRowStore basketStore;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+    boolean statisticsEnabled;
+
+    // the session factory outlives this class in the context cache, so its statistics are put back afterwards
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void restoreStatistics() {
+        statistics.clear();
+        statistics.setStatisticsEnabled(statisticsEnabled);
+    }
+
+    private Statistics clearedStatistics() {
+        statistics.clear();
+        return statistics;
+    }
+
+    private static CacheRegionStatistics region(Statistics statistics, String region) {
+        return statistics.getDomainDataRegionStatistics(region);
+    }
+
+    @Test
+    @DisplayName("serves Products from their region")
+    void cachesProducts() {
+        //Given
+        long productId = productRepository.save(defaultNewProduct()).getProductId();
+        Statistics statistics = clearedStatistics();
+
+        //When
+        productRepository.findById(productId);
+        productRepository.findById(productId);
+
+        //Then
+        assertThat(region(statistics, CacheRegions.PRODUCTS).getHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("serves Customers from their region")
+    void cachesCustomers() {
+        //Given
+        long customerId = customerRepository.save(new Customer(defaultCustomerName())).getCustomerId();
+        Statistics statistics = clearedStatistics();
+
+        //When
+        customerRepository.findById(customerId);
+        customerRepository.findById(customerId);
+
+        //Then
+        assertThat(region(statistics, CacheRegions.CUSTOMERS).getHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("serves Basket items read again from their region")
+    void cachesBasketItems() {
+        //Given
+        Basket basket = basketStore.save(defaultNewEmptyBasket());
+        basketStore.addItem(basket.getBasketId(), defaultProductId(), 1);
+        Statistics statistics = clearedStatistics();
+
+        //When
+        basketStore.findByCustomerId(defaultCustomerId());
+        basketStore.findByCustomerId(defaultCustomerId());
+
+        //Then
+        assertThat(region(statistics, CacheRegions.BASKET_ITEMS).getMissCount()).isOne();
+        assertThat(region(statistics, CacheRegions.BASKET_ITEMS).getHitCount()).isOne();
+    }
+
+    @Test
+    @DisplayName("drops cached Basket items changed by the native upsert")
+    void evictsUpsertedItems() {
+        //Given
+        Basket basket = basketStore.save(defaultNewEmptyBasket());
+        basketStore.addItem(basket.getBasketId(), defaultProductId(), 1);
+        basketStore.findByCustomerId(defaultCustomerId());
+
+        //When
+        basketStore.addItem(basket.getBasketId(), defaultProductId(), 2);
+        Basket result = basketStore.findByCustomerId(defaultCustomerId()).orElseThrow();
+
+        //Then
+        assertThat(result.getAmountOf(defaultProductId())).isEqualTo(3);
+    }
+}
@@ -0,0 +1,99 @@
+package org.lager.repository;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// records the statements sent through the context's DataSource with their bound parameters,
+// whether Hibernate or a JdbcTemplate sends them
+class StatementRecorder implements BeanPostProcessor {
+
+    record Recorded(String sql, List<Object> parameters) {
+    }
+
+    private final List<Recorded> recorded = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource))
+            return bean;
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return recording(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return recording(super.getConnection(username, password));
+            }
+        };
+    }
+
+    List<Recorded> recorded() {
+        return List.copyOf(recorded);
+    }
+
+    void clear() {
+        recorded.clear();
+    }
+
+    private Connection recording(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (method.equals("prepareStatement") && args[0] instanceof String sql)
+                return recording((PreparedStatement) result, sql);
+            if (method.equals("createStatement"))
+                return recording((Statement) result);
+            return result;
+        });
+    }
+
+    private PreparedStatement recording(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+            if (method.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index)
+                parameters.put(index, method.equals("setNull") ? null : args[1]);
+            else if (method.equals("clearParameters"))
+                parameters.clear();
+            else if (method.startsWith("execute") && (args == null || args.length == 0))
+                recorded.add(new Recorded(sql, new ArrayList<>(parameters.values())));
+            return result;
+        });
+    }
+
+    private Statement recording(Statement statement) {
+        return proxy(Statement.class, statement, (method, args, result) -> {
+            if (method.startsWith("execute") && args != null && args.length > 0 && args[0] instanceof String sql)
+                recorded.add(new Recorded(sql, List.of()));
+            return result;
+        });
+    }
+
+    private interface AfterCall {
+        Object apply(String method, Object[] args, Object result);
+    }
+
+    private static <T> T proxy(Class<T> type, T target, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return afterCall.apply(method.getName(), args, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
@@ -0,0 +1,271 @@
+package org.lager.repository;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.lager.cache.InvalidationBus;
+import org.lager.model.Basket;
+import org.lager.model.BasketItem;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+import static org.lager.BasketFixtures.*;
+import static org.lager.CustomerFixtures.defaultCustomerId;
+import static org.lager.ProductFixtures.anotherProductId;
+import static org.lager.ProductFixtures.defaultProductId;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WriteBehindBasketStore")
+class WriteBehindBasketStoreTest implements WithAssertions {
+
+    @Mock
+    BasketStore backingStore;
+    @Mock
+    InvalidationBus invalidationBus;
+
+    WriteBehindBasketStore store;
+
+    @BeforeEach
+    void init() {
+        store = new WriteBehindBasketStore(backingStore, invalidationBus);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Basket> flushedBaskets() {
+        ArgumentCaptor<Collection<Basket>> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(backingStore).saveAll(captor.capture());
+        return List.copyOf(captor.getValue());
+    }
+
+    @Nested
+    @DisplayName("when adds items")
+    class AddItemTest {
+
+        @Test
+        @DisplayName("keeps them in memory until flushed")
+        void keepsInMemory() {
+            //Given
+            Mockito.when(backingStore.findByCustomerId(defaultCustomerId()))
+                    .thenReturn(Optional.of(defaultBasket()));
+
+            //When
+            long basketId = store.findBasketIdByCustomerId(defaultCustomerId()).orElseThrow();
+            store.addItem(basketId, defaultProductId(), 2);
+            BasketItem item = store.addItem(basketId, anotherProductId(), 3);
+            Optional<Basket> basket = store.findByCustomerId(defaultCustomerId());
+
+            //Then
+            assertThat(item).isEqualTo(new BasketItem(anotherProductId(), 3));
+            assertThat(basket).hasValueSatisfying(found -> assertThat(found.getContent())
+                    .containsEntry(defaultProductId(), 3)
+                    .containsEntry(anotherProductId(), 3));
+            Mockito.verify(backingStore).findByCustomerId(defaultCustomerId());
+            Mockito.verify(backingStore, Mockito.never()).addItem(anyLong(), anyLong(), anyInt());
+            Mockito.verify(backingStore, Mockito.never()).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("writes all edits of a Basket with one flush")
+        void groupsEdits() {
+            //Given
+            Mockito.when(backingStore.findByCustomerId(defaultCustomerId()))
+                    .thenReturn(Optional.of(defaultEmptyBasket()));
+
+            //When
+            long basketId = store.findBasketIdByCustomerId(defaultCustomerId()).orElseThrow();
+            for (int i = 0; i < 10; i++)
+                store.addItem(basketId, defaultProductId(), 1);
+            store.flush();
+            store.flush();
+
+            //Then
+            assertThat(flushedBaskets()).singleElement()
+                    .satisfies(basket -> assertThat(basket.getAmountOf(defaultProductId())).isEqualTo(10));
+        }
+
+        @Test
+        @DisplayName("writes through when Basket is not in memory")
+        void writesThroughUnknownBasket() {
+            //Given
+            Mockito.when(backingStore.addItem(1L, defaultProductId(), 2))
+                    .thenReturn(new BasketItem(defaultProductId(), 2));
+
+            //When
+            BasketItem item = store.addItem(1L, defaultProductId(), 2);
+
+            //Then
+            assertThat(item).isEqualTo(new BasketItem(defaultProductId(), 2));
+            Mockito.verify(backingStore).addItem(1L, defaultProductId(), 2);
+        }
+    }
+
+    @Nested
+    @DisplayName("when flushes")
+    class FlushTest {
+
+        @Test
+        @DisplayName("reloads Basket afterwards")
+        void forgetsFlushedBaskets() {
+            //Given
+            Mockito.when(backingStore.findByCustomerId(defaultCustomerId()))
+                    .thenReturn(Optional.of(defaultEmptyBasket()));
+
+            //When
+            long basketId = store.findBasketIdByCustomerId(defaultCustomerId()).orElseThrow();
+            store.addItem(basketId, defaultProductId(), 1);
+            store.flush();
+            store.findByCustomerId(defaultCustomerId());
+
+            //Then
+            Mockito.verify(backingStore, Mockito.times(2)).findByCustomerId(defaultCustomerId());
+        }
+
+        @Test
+        @DisplayName("with nothing to write does not make a running load read again")
+        void emptyFlushKeepsLoad() {
+            //Given
+            Mockito.when(backingStore.findByCustomerId(defaultCustomerId()))
+                    .thenAnswer(invocation -> {
+                        store.flush();
+                        return Optional.of(defaultEmptyBasket());
+                    })
+                    .thenReturn(Optional.of(defaultEmptyBasket()));
+
+            //When
+            Optional<Basket> basket = store.findByCustomerId(defaultCustomerId());
+
+            //Then
+            assertThat(basket).isPresent();
+            Mockito.verify(backingStore).findByCustomerId(defaultCustomerId());
+            Mockito.verify(backingStore, Mockito.never()).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("keeps edits when writing fails")
+        void keepsEditsOnFailure() {
+            //Given
+            Mockito.when(backingStore.findByCustomerId(defaultCustomerId()))
+                    .thenReturn(Optional.of(defaultEmptyBasket()));
+            Mockito.doThrow(new IllegalStateException("unavailable"))
+                    .when(backingStore).saveAll(any());
+
+            //When
+            long basketId = store.findBasketIdByCustomerId(defaultCustomerId()).orElseThrow();
+            store.addItem(basketId, defaultProductId(), 1);
+            Throwable thrown = catchThrowable(store::flush);
+            Optional<Basket> basket = store.findByCustomerId(defaultCustomerId());
+
+            //Then
+            assertThat(thrown).isInstanceOf(IllegalStateException.class);
+            assertThat(basket).hasValueSatisfying(found ->
+                    assertThat(found.getAmountOf(defaultProductId())).isEqualTo(1));
+            Mockito.verify(backingStore).findByCustomerId(defaultCustomerId());
+        }
+    }
+
+    @Nested
+    @DisplayName("when deletes")
+    class DeleteTest {
+
+        @Test
+        @DisplayName("drops pending edits of the Basket")
+        void dropsPendingEdits() {
+            //Given
+            Mockito.when(backingStore.findByCustomerId(defaultCustomerId()))
+                    .thenReturn(Optional.of(defaultEmptyBasket()))
+                    .thenReturn(Optional.empty());
+
+            //When
+            long basketId = store.findBasketIdByCustomerId(defaultCustomerId()).orElseThrow();
+            store.addItem(basketId, defaultProductId(), 1);
+            store.deleteByCustomerId(defaultCustomerId());
+            store.flush();
+
+            //Then
+            assertThat(store.findByCustomerId(defaultCustomerId())).isEmpty();
+            Mockito.verify(backingStore).deleteByCustomerId(defaultCustomerId());
+            Mockito.verify(backingStore, Mockito.never()).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("makes a load running meanwhile read again")
+        void deletionRetriesLoad() {
+            //Given
+            Mockito.when(backingStore.findByCustomerId(defaultCustomerId()))
+                    .thenAnswer(invocation -> {
+                        store.deleteByCustomerId(defaultCustomerId());
+                        return Optional.of(defaultEmptyBasket());
+                    })
+                    .thenReturn(Optional.empty());
+
+            //When
+            Optional<Basket> basket = store.findByCustomerId(defaultCustomerId());
+
+            //Then
+            assertThat(basket).isEmpty();
+            Mockito.verify(backingStore, Mockito.times(2)).findByCustomerId(defaultCustomerId());
+        }
+    }
+
+    @Nested
+    @DisplayName("when another instance changes a Basket")
+    class ChangedElsewhereTest {
+
+        private LongConsumer changedElsewhere() {
+            ArgumentCaptor<LongConsumer> captor = ArgumentCaptor.forClass(LongConsumer.class);
+            Mockito.verify(invalidationBus).subscribe(eq(InvalidationBus.BASKET_TOPIC), captor.capture(), any());
+            return captor.getValue();
+        }
+
+        @Test
+        @DisplayName("reloads a Basket without pending edits")
+        void reloadsClean() {
+            //Given
+            Mockito.when(backingStore.findByCustomerId(defaultCustomerId()))
+                    .thenReturn(Optional.of(defaultEmptyBasket()))
+                    .thenReturn(Optional.of(defaultBasket()));
+
+            //When
+            long basketId = store.findBasketIdByCustomerId(defaultCustomerId()).orElseThrow();
+            changedElsewhere().accept(basketId);
+            Optional<Basket> basket = store.findByCustomerId(defaultCustomerId());
+
+            //Then
+            assertThat(basket).hasValueSatisfying(found ->
+                    assertThat(found.getContent()).isEqualTo(defaultBasket().getContent()));
+            Mockito.verify(backingStore, Mockito.times(2)).findByCustomerId(defaultCustomerId());
+        }
+
+        @Test
+        @DisplayName("keeps pending edits of a Basket")
+        void keepsDirty() {
+            //Given
+            Mockito.when(backingStore.findByCustomerId(defaultCustomerId()))
+                    .thenReturn(Optional.of(defaultEmptyBasket()));
+
+            //When
+            long basketId = store.findBasketIdByCustomerId(defaultCustomerId()).orElseThrow();
+            store.addItem(basketId, defaultProductId(), 1);
+            changedElsewhere().accept(basketId);
+            store.flush();
+
+            //Then
+            assertThat(flushedBaskets()).singleElement().satisfies(flushed ->
+                    assertThat(flushed.getAmountOf(defaultProductId())).isEqualTo(1));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.lager.security;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.lager.cache.BoundedCache;
+import org.lager.cache.CacheStats;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.UserDetailsManager;
+
+import java.time.Duration;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Caching UserDetailsManager")
+class CachingUserDetailsManagerTest implements WithAssertions {
+
+    private static final UserDetails USER = User.withUsername("user").password("secret").roles("USER").build();
+
+    @Mock
+    UserDetailsManager delegate;
+
+    CachingUserDetailsManager userDetailsManager;
+
+    @BeforeEach
+    void init() {
+        userDetailsManager = new CachingUserDetailsManager(delegate, new BoundedCache<>(10, Duration.ofMinutes(5)));
+    }
+
+    @Nested
+    @DisplayName("loads a user")
+    class LoadUserByUsername {
+
+        @Test
+        @DisplayName("once from the delegate")
+        void cached() {
+            //Given
+            Mockito.when(delegate.loadUserByUsername("user"))
+                    .thenReturn(USER);
+
+            //When
+            UserDetails first = userDetailsManager.loadUserByUsername("user");
+            UserDetails second = userDetailsManager.loadUserByUsername("user");
+
+            //Then
+            assertThat(first).isEqualTo(USER);
+            assertThat(second.getPassword()).isEqualTo("secret");
+            assertThat(second.getAuthorities()).isEqualTo(USER.getAuthorities());
+            assertThat(userDetailsManager.getCacheStats()).isEqualTo(new CacheStats(1, 1, 0, 1));
+            Mockito.verify(delegate).loadUserByUsername("user");
+        }
+
+        @Test
+        @DisplayName("as a copy whose erased credentials do not reach the cache")
+        void erasedCredentials() {
+            //Given
+            Mockito.when(delegate.loadUserByUsername("user"))
+                    .thenReturn(USER);
+
+            //When
+            ((CredentialsContainer) userDetailsManager.loadUserByUsername("user")).eraseCredentials();
+            UserDetails result = userDetailsManager.loadUserByUsername("user");
+
+            //Then
+            assertThat(result.getPassword()).isEqualTo("secret");
+        }
+
+        @Test
+        @DisplayName("but not an unknown one")
+        void unknown() {
+            //Given
+            Mockito.when(delegate.loadUserByUsername("user"))
+                    .thenThrow(new UsernameNotFoundException("user"));
+
+            //When
+            boolean exists = userDetailsManager.userExists("user");
+
+            //Then
+            assertThat(exists).isFalse();
+            assertThatExceptionOfType(UsernameNotFoundException.class)
+                    .isThrownBy(() -> userDetailsManager.loadUserByUsername("user"));
+            Mockito.verify(delegate, Mockito.times(2)).loadUserByUsername("user");
+        }
+    }
+
+    @Nested
+    @DisplayName("evicts a user")
+    class Evict {
+
+        @Test
+        @DisplayName("after creating it")
+        void create() {
+            //Given
+            Mockito.when(delegate.loadUserByUsername("user"))
+                    .thenThrow(new UsernameNotFoundException("user"))
+                    .thenReturn(USER);
+
+            //When
+            boolean before = userDetailsManager.userExists("user");
+            userDetailsManager.createUser(USER);
+            boolean after = userDetailsManager.userExists("user");
+
+            //Then
+            assertThat(before).isFalse();
+            assertThat(after).isTrue();
+            Mockito.verify(delegate).createUser(USER);
+        }
+
+        @Test
+        @DisplayName("after deleting it")
+        void delete() {
+            //Given
+            Mockito.when(delegate.loadUserByUsername("user"))
+                    .thenReturn(USER)
+                    .thenThrow(new UsernameNotFoundException("user"));
+
+            //When
+            boolean before = userDetailsManager.userExists("user");
+            userDetailsManager.deleteUser("user");
+            boolean after = userDetailsManager.userExists("user");
+
+            //Then
+            assertThat(before).isTrue();
+            assertThat(after).isFalse();
+            Mockito.verify(delegate).deleteUser("user");
+        }
+
+        @Test
+        @DisplayName("when told so")
+        void evict() {
+            //Given
+            Mockito.when(delegate.loadUserByUsername("user"))
+                    .thenReturn(USER);
+            userDetailsManager.loadUserByUsername("user");
+
+            //When
+            userDetailsManager.evict("user");
+            userDetailsManager.loadUserByUsername("user");
+
+            //Then
+            Mockito.verify(delegate, Mockito.times(2)).loadUserByUsername("user");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.lager.security;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+@JdbcTest
+@Import(JwtKeyRing.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("JWT key ring")
+class JwtKeyRingTest implements WithAssertions {
+
+    @Autowired
+    JwtKeyRing keyRing;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("publishes a first key and signs with it")
+    void firstKey() {
+        //When
+        JwtKey key = keyRing.signingKey();
+
+        //Then
+        assertThat(kids()).containsExactly(key.kid());
+    }
+
+    @Test
+    @DisplayName("shares its keys with the other instances")
+    void shared() {
+        //Given
+        JwtKey key = keyRing.signingKey();
+        JwtKeyRing other = new JwtKeyRing(jdbcTemplate, Duration.ofDays(1), Duration.ofMinutes(1));
+
+        //When
+        JwtKey otherKey = other.signingKey();
+
+        //Then
+        assertThat(otherKey.kid()).isEqualTo(key.kid());
+        assertThat(otherKey.secret()).isEqualTo(key.secret());
+        assertThat(kids()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("publishes a new key once the newest one is due, but keeps signing until it is known everywhere")
+    void rotates() {
+        //Given
+        JwtKey previous = insert(System.currentTimeMillis() - Duration.ofDays(1).plusHours(1).toMillis());
+
+        //When
+        keyRing.refresh();
+
+        //Then
+        assertThat(kids()).hasSize(2).contains(previous.kid());
+        assertThat(keyRing.signingKey().kid()).isEqualTo(previous.kid());
+    }
+
+    @Test
+    @DisplayName("retires a key once every token it signed has expired")
+    void retires() {
+        //Given
+        long now = System.currentTimeMillis();
+        JwtKey retired = insert(now - Duration.ofDays(2).toMillis());
+        JwtKey previous = insert(now - Duration.ofHours(1).toMillis());
+        JwtKey current = insert(now - Duration.ofMinutes(10).toMillis());
+
+        //When
+        keyRing.refresh();
+
+        //Then
+        assertThat(kids()).contains(previous.kid(), current.kid()).doesNotContain(retired.kid());
+        assertThat(keyRing.signingKey().kid()).isEqualTo(current.kid());
+    }
+
+    private JwtKey insert(long createdAt) {
+        JwtKey key = JwtKey.generate(createdAt);
+        jdbcTemplate.update("INSERT INTO JWT_KEYS (KID, SECRET, CREATED_AT) VALUES (?, ?, ?)",
+                key.kid(), Base64.getEncoder().encodeToString(key.secret().getEncoded()), createdAt);
+        return key;
+    }
+
+    private List<String> kids() {
+        return jdbcTemplate.queryForList("SELECT KID FROM JWT_KEYS", String.class);
+    }
+}
@@ -0,0 +1,250 @@
+package org.lager.security;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.lager.cache.BoundedCache;
+import org.lager.cache.CacheStats;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JwtTokenProvider")
+class JwtTokenProviderTest implements WithAssertions {
+
+    private static final List<GrantedAuthority> AUTHORITIES = AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN");
+
+    @Mock
+    TokenRevocations revocations;
+
+    BoundedCache<String, VerifiedToken> cache = new BoundedCache<>(10, JwtTokenProvider.VALID_DURATION);
+
+    JwtKeyRing keyRing;
+
+    JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void init() {
+        keyRing = ringOf(JwtKey.generate(System.currentTimeMillis()));
+    }
+
+    private static JwtKeyRing ringOf(JwtKey... keys) {
+        JwtKeyRing ring = new JwtKeyRing(Mockito.mock(JdbcTemplate.class), Duration.ofDays(1), Duration.ofMinutes(1));
+        ring.load(List.of(keys), System.currentTimeMillis());
+        return ring;
+    }
+
+    @Nested
+    @DisplayName("authenticates")
+    class GetAuthentication {
+
+        @Test
+        @DisplayName("a generated token with its authorities")
+        void generatedToken() {
+            //Given
+            tokenProvider = new JwtTokenProvider(revocations, cache, keyRing);
+            String token = tokenProvider.generateToken("user", AUTHORITIES);
+
+            //When
+            Optional<Authentication> result = tokenProvider.getAuthentication(token);
+
+            //Then
+            assertThat(result).isPresent();
+            assertThat(result.get().getName()).isEqualTo("user");
+            assertThat(List.copyOf(result.get().getAuthorities())).isEqualTo(AUTHORITIES);
+            assertThat(result.get().isAuthenticated()).isTrue();
+            Mockito.verify(revocations).isRevoked(Mockito.eq("user"), any());
+        }
+
+        @Test
+        @DisplayName("a token without authorities")
+        void noAuthorities() {
+            //Given
+            tokenProvider = new JwtTokenProvider(revocations, cache, keyRing);
+            String token = tokenProvider.generateToken("user", List.of());
+
+            //When
+            Optional<Authentication> result = tokenProvider.getAuthentication(token);
+
+            //Then
+            assertThat(result).isPresent();
+            assertThat(result.get().getAuthorities()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("but not a revoked token")
+        void revokedToken() {
+            //Given
+            Mockito.when(revocations.isRevoked(anyString(), any()))
+                    .thenReturn(true);
+            tokenProvider = new JwtTokenProvider(revocations, cache, keyRing);
+            String token = tokenProvider.generateToken("user", AUTHORITIES);
+
+            //When
+            Optional<Authentication> result = tokenProvider.getAuthentication(token);
+
+            //Then
+            assertThat(result).isEmpty();
+        }
+
+        @Test
+        @DisplayName("a token of another instance sharing the key ring")
+        void otherInstance() {
+            //Given
+            String token = new JwtTokenProvider(revocations, cache, keyRing).generateToken("user", AUTHORITIES);
+            tokenProvider = new JwtTokenProvider(revocations, new BoundedCache<>(10, JwtTokenProvider.VALID_DURATION), keyRing);
+
+            //When
+            Optional<Authentication> result = tokenProvider.getAuthentication(token);
+
+            //Then
+            assertThat(result).isPresent();
+            assertThat(result.get().getName()).isEqualTo("user");
+        }
+
+        @Test
+        @DisplayName("a token signed with a previous key of the ring")
+        void previousKey() {
+            //Given
+            long now = System.currentTimeMillis();
+            JwtKey previous = JwtKey.generate(now - Duration.ofDays(1).toMillis());
+            String token = new JwtTokenProvider(revocations, cache, ringOf(previous)).generateToken("user", AUTHORITIES);
+            JwtKeyRing rotated = ringOf(previous, JwtKey.generate(now - Duration.ofMinutes(5).toMillis()));
+            tokenProvider = new JwtTokenProvider(revocations, new BoundedCache<>(10, JwtTokenProvider.VALID_DURATION), rotated);
+
+            //When
+            Optional<Authentication> result = tokenProvider.getAuthentication(token);
+
+            //Then
+            assertThat(result).isPresent();
+            assertThat(rotated.signingKey()).isNotEqualTo(previous);
+        }
+
+        @Test
+        @DisplayName("but not a token with a key id unknown to the ring")
+        void unknownKey() {
+            //Given
+            String token = new JwtTokenProvider(revocations, cache, ringOf(JwtKey.generate(System.currentTimeMillis())))
+                    .generateToken("user", AUTHORITIES);
+            tokenProvider = new JwtTokenProvider(revocations, new BoundedCache<>(10, JwtTokenProvider.VALID_DURATION), keyRing);
+
+            //When
+            Optional<Authentication> result = tokenProvider.getAuthentication(token);
+
+            //Then
+            assertThat(result).isEmpty();
+            Mockito.verifyNoInteractions(revocations);
+        }
+
+        @Test
+        @DisplayName("but not a tampered token")
+        void tamperedToken() {
+            //Given
+            tokenProvider = new JwtTokenProvider(revocations, cache, keyRing);
+            String token = tokenProvider.generateToken("user", AUTHORITIES);
+            String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+            //When
+            Optional<Authentication> result = tokenProvider.getAuthentication(tampered);
+
+            //Then
+            assertThat(result).isEmpty();
+            Mockito.verifyNoInteractions(revocations);
+        }
+
+        @Test
+        @DisplayName("but not a malformed, blank or missing token")
+        void malformedToken() {
+            //Given
+            tokenProvider = new JwtTokenProvider(revocations, cache, keyRing);
+
+            //Then
+            assertThat(tokenProvider.getAuthentication("not a token")).isEmpty();
+            assertThat(tokenProvider.getAuthentication(" ")).isEmpty();
+            assertThat(tokenProvider.getAuthentication(null)).isEmpty();
+            Mockito.verifyNoInteractions(revocations);
+        }
+    }
+
+    @Nested
+    @DisplayName("caches")
+    class Caching {
+
+        @Test
+        @DisplayName("a verified token and hits it afterwards")
+        void hits() {
+            //Given
+            tokenProvider = new JwtTokenProvider(revocations, cache, keyRing);
+            String token = tokenProvider.generateToken("user", AUTHORITIES);
+
+            //When
+            Optional<Authentication> first = tokenProvider.getAuthentication(token);
+            Optional<Authentication> second = tokenProvider.getAuthentication(token);
+
+            //Then
+            assertThat(second).isEqualTo(first);
+            assertThat(tokenProvider.getCacheStats()).isEqualTo(new CacheStats(1, 1, 0, 1));
+        }
+
+        @Test
+        @DisplayName("but no invalid token")
+        void noInvalid() {
+            //Given
+            tokenProvider = new JwtTokenProvider(revocations, cache, keyRing);
+
+            //When
+            tokenProvider.getAuthentication("not a token");
+
+            //Then
+            assertThat(tokenProvider.getCacheStats().size()).isZero();
+        }
+
+        @Test
+        @DisplayName("but checks revocations on a hit")
+        void revokedAfterCaching() {
+            //Given
+            tokenProvider = new JwtTokenProvider(revocations, cache, keyRing);
+            String token = tokenProvider.generateToken("user", AUTHORITIES);
+            tokenProvider.getAuthentication(token);
+            Mockito.when(revocations.isRevoked(anyString(), any()))
+                    .thenReturn(true);
+
+            //When
+            Optional<Authentication> result = tokenProvider.getAuthentication(token);
+
+            //Then
+            assertThat(result).isEmpty();
+            assertThat(tokenProvider.getCacheStats().hits()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("and evicts the tokens of a user")
+        void evictsUser() {
+            //Given
+            tokenProvider = new JwtTokenProvider(revocations, cache, keyRing);
+            tokenProvider.getAuthentication(tokenProvider.generateToken("user", AUTHORITIES));
+            tokenProvider.getAuthentication(tokenProvider.generateToken("admin", AUTHORITIES));
+
+            //When
+            tokenProvider.evict("user");
+
+            //Then
+            assertThat(tokenProvider.getCacheStats().size()).isEqualTo(1);
+        }
+    }
+}
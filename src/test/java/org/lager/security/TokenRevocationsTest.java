@@ -0,0 +1,91 @@
+package org.lager.security;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@JdbcTest
+@Import(TokenRevocations.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("Token revocations")
+class TokenRevocationsTest implements WithAssertions {
+
+    @Autowired
+    TokenRevocations revocations;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("reject tokens issued until the revocation")
+    void rejectsEarlierTokens() {
+        //Given
+        Date before = new Date(System.currentTimeMillis() - 1000);
+
+        //When
+        revocations.revoke("user");
+        Date after = new Date(System.currentTimeMillis() + 1000);
+
+        //Then
+        assertThat(revocations.isRevoked("user", before)).isTrue();
+        assertThat(revocations.isRevoked("user", null)).isTrue();
+        assertThat(revocations.isRevoked("user", after)).isFalse();
+        assertThat(revocations.isRevoked("admin", before)).isFalse();
+    }
+
+    @Test
+    @DisplayName("pick up revocations of other instances on refresh")
+    void picksUpOthers() {
+        //Given
+        long revokedAt = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO TOKEN_REVOCATIONS (USERNAME, REVOKED_AT) VALUES (?, ?)", "user", revokedAt);
+
+        //When
+        boolean beforeRefresh = revocations.isRevoked("user", new Date(revokedAt - 1000));
+        revocations.refresh();
+
+        //Then
+        assertThat(beforeRefresh).isFalse();
+        assertThat(revocations.isRevoked("user", new Date(revokedAt - 1000))).isTrue();
+    }
+
+    @Test
+    @DisplayName("tell listeners about each new revocation once")
+    void notifiesListeners() {
+        //Given
+        List<String> heard = new ArrayList<>();
+        revocations.addListener(heard::add);
+        jdbcTemplate.update("INSERT INTO TOKEN_REVOCATIONS (USERNAME, REVOKED_AT) VALUES (?, ?)", "other", System.currentTimeMillis());
+
+        //When
+        revocations.revoke("user");
+        revocations.refresh();
+        revocations.refresh();
+
+        //Then
+        assertThat(heard).containsExactly("user", "other");
+    }
+
+    @Test
+    @DisplayName("forget revocations older than any valid token")
+    void forgetsExpired() {
+        //Given
+        long expired = System.currentTimeMillis() - JwtTokenProvider.VALID_DURATION.toMillis() - 1000;
+        jdbcTemplate.update("INSERT INTO TOKEN_REVOCATIONS (USERNAME, REVOKED_AT) VALUES (?, ?)", "user", expired);
+
+        //When
+        revocations.refresh();
+
+        //Then
+        assertThat(revocations.isRevoked("user", new Date(expired - 1000))).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TOKEN_REVOCATIONS", Integer.class)).isZero();
+    }
+}
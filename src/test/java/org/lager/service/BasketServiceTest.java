@@ -8,11 +8,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.lager.exception.NoSuchBasketException;
 import org.lager.exception.NoSuchCustomerException;
 import org.lager.exception.NoSuchProductException;
+import org.lager.model.BasketItem;
 import org.lager.model.dto.BasketDto;
-import org.lager.repository.BasketRepository;
+import org.lager.repository.BasketStore;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.List;
 import java.util.Map;
@@ -24,6 +27,7 @@ import static org.lager.CustomerFixtures.defaultCustomerId;
 import static org.lager.ProductFixtures.anotherProductId;
 import static org.lager.ProductFixtures.defaultProductId;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,7 +39,9 @@ class BasketServiceTest implements WithAssertions {
     @Mock
     ProductService productService;
     @Mock
-    BasketRepository repository;
+    BasketStore store;
+    @Mock
+    PlatformTransactionManager transactionManager;
 
     BasketService basketService;
 
@@ -46,42 +52,103 @@ class BasketServiceTest implements WithAssertions {
         @Test
         @DisplayName("existing Basket")
         void existingID() {
-            Mockito.when(repository.findByCustomerId(anyLong()))
+            Mockito.when(store.findByCustomerId(anyLong()))
                     .thenReturn(Optional.of(defaultBasket()));
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             Map<Long, Integer> items = basketService.getContentOfBasket(defaultCustomerId());
 
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
+            Mockito.verify(store).findByCustomerId(defaultCustomerId());
             assertThat(items).containsExactlyInAnyOrderEntriesOf(basketContentOf(defaultBasket()));
         }
 
         @Test
         @DisplayName("non-existing Basket")
         void nonExistingID() {
-            Mockito.when(repository.findByCustomerId(anyLong()))
+            Mockito.when(store.findByCustomerId(anyLong()))
                     .thenReturn(Optional.empty());
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             Map<Long, Integer> items = basketService.getContentOfBasket(defaultCustomerId());
 
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
+            Mockito.verify(store).findByCustomerId(defaultCustomerId());
             assertThat(items).isEmpty();
         }
 
         @Test
         @DisplayName("empty Basket")
-        void emptyID() {Mockito.when(repository.findByCustomerId(anyLong()))
+        void emptyID() {Mockito.when(store.findByCustomerId(anyLong()))
                 .thenReturn(Optional.of(defaultEmptyBasket()));
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             Map<Long, Integer> items = basketService.getContentOfBasket(defaultCustomerId());
 
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
+            Mockito.verify(store).findByCustomerId(defaultCustomerId());
             assertThat(items).isEmpty();
         }
     }
 
+    @Nested
+    @DisplayName("when tags")
+    class GetETagBasketServiceTest {
+
+        @Test
+        @DisplayName("the same content with the same ETag")
+        void sameContent() {
+            Mockito.when(store.findByCustomerId(anyLong()))
+                    .thenReturn(Optional.of(defaultBasket()))
+                    .thenReturn(Optional.of(defaultBasket()));
+
+            basketService = new BasketService(store, customerService, productService, transactionManager);
+            String first = basketService.getETag(basketService.get(defaultCustomerId()));
+            String second = basketService.getETag(basketService.get(defaultCustomerId()));
+
+            assertThat(second).isEqualTo(first);
+        }
+
+        @Test
+        @DisplayName("a changed amount with another ETag")
+        void changedAmount() {
+            Mockito.when(store.findByCustomerId(anyLong()))
+                    .thenReturn(Optional.of(defaultBasketWith(defaultProductId(), 1)))
+                    .thenReturn(Optional.of(defaultBasketWith(defaultProductId(), 2)));
+
+            basketService = new BasketService(store, customerService, productService, transactionManager);
+            String before = basketService.getETag(basketService.get(defaultCustomerId()));
+            String after = basketService.getETag(basketService.get(defaultCustomerId()));
+
+            assertThat(after).isNotEqualTo(before);
+        }
+
+        @Test
+        @DisplayName("a non-existing Basket like an empty one")
+        void nonExistingID() {
+            Mockito.when(store.findByCustomerId(anyLong()))
+                    .thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(defaultEmptyBasket()));
+
+            basketService = new BasketService(store, customerService, productService, transactionManager);
+            String missing = basketService.getETag(basketService.get(defaultCustomerId()));
+            String empty = basketService.getETag(basketService.get(defaultCustomerId()));
+
+            assertThat(missing).isEqualTo(empty);
+        }
+
+        @Test
+        @DisplayName("swapped amounts with different ETags")
+        void swappedAmounts() {
+            assertThat(BasketService.eTagOf(Map.of(1L, 2, 2L, 1)))
+                    .isNotEqualTo(BasketService.eTagOf(Map.of(1L, 1, 2L, 2)));
+        }
+
+        @Test
+        @DisplayName("neighbouring Products with different ETags")
+        void neighbouringProducts() {
+            assertThat(BasketService.eTagOf(Map.of(1L, 40)))
+                    .isNotEqualTo(BasketService.eTagOf(Map.of(2L, 9)));
+        }
+    }
+
     @Nested
     @DisplayName("when gets")
     class GetBasketServiceTest {
@@ -89,38 +156,38 @@ class BasketServiceTest implements WithAssertions {
         @Test
         @DisplayName("existing Basket")
         void existingID() {
-            Mockito.when(repository.findByCustomerId(anyLong()))
+            Mockito.when(store.findByCustomerId(anyLong()))
                     .thenReturn(Optional.of(defaultBasket()));
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             BasketDto result = basketService.get(defaultCustomerId());
 
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
+            Mockito.verify(store).findByCustomerId(defaultCustomerId());
             assertThat(result).isEqualTo(new BasketDto(defaultBasket()));
         }
 
         @Test
         @DisplayName("non-existing Basket")
         void nonExistingID() {
-            Mockito.when(repository.findByCustomerId(anyLong()))
+            Mockito.when(store.findByCustomerId(anyLong()))
                     .thenReturn(Optional.empty());
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             BasketDto result = basketService.get(defaultCustomerId());
 
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
+            Mockito.verify(store).findByCustomerId(defaultCustomerId());
             assertThat(result).isEqualTo(new BasketDto(defaultEmptyBasket()));
         }
 
         @Test
         @DisplayName("empty Basket")
-        void emptyID() {Mockito.when(repository.findByCustomerId(anyLong()))
+        void emptyID() {Mockito.when(store.findByCustomerId(anyLong()))
                 .thenReturn(Optional.of(defaultEmptyBasket()));
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             BasketDto result = basketService.get(defaultCustomerId());
 
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
+            Mockito.verify(store).findByCustomerId(defaultCustomerId());
             assertThat(result).isEqualTo(new BasketDto(defaultEmptyBasket()));
         }
     }
@@ -128,12 +195,12 @@ class BasketServiceTest implements WithAssertions {
     @Test
     @DisplayName("drop (deletes) a Basket")
     void NotEmptyBasket() {
-        Mockito.doNothing().when(repository).deleteByCustomerId(anyLong());
+        Mockito.doNothing().when(store).deleteByCustomerId(anyLong());
 
-        basketService = new BasketService(repository, customerService, productService);
+        basketService = new BasketService(store, customerService, productService, transactionManager);
         basketService.dropBasket(defaultCustomerId());
 
-        Mockito.verify(repository).deleteByCustomerId(defaultCustomerId());
+        Mockito.verify(store).deleteByCustomerId(defaultCustomerId());
     }
 
     @Nested
@@ -143,46 +210,46 @@ class BasketServiceTest implements WithAssertions {
         @Test
         @DisplayName("from an existing Basket")
         void emptyBasket() {
-            Mockito.when(repository.findByCustomerId(anyLong()))
+            Mockito.when(store.findByCustomerId(anyLong()))
                     .thenReturn(Optional.of(defaultBasket()));
-            Mockito.when(repository.save(any()))
+            Mockito.when(store.save(any()))
                     .thenReturn(defaultEmptyBasket());
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             basketService.removeFromBasket(defaultCustomerId(), defaultProductId());
 
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
-            Mockito.verify(repository).save(defaultEmptyBasket());
+            Mockito.verify(store).findByCustomerId(defaultCustomerId());
+            Mockito.verify(store).save(defaultEmptyBasket());
         }
 
         @Test
         @DisplayName("from a non-existing Basket")
         void nonExistingBasket() {
-            Mockito.when(repository.findByCustomerId(anyLong()))
+            Mockito.when(store.findByCustomerId(anyLong()))
                     .thenReturn(Optional.empty());
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
 
             assertThatThrownBy(() -> basketService.removeFromBasket(defaultCustomerId(), defaultProductId()))
                     .isInstanceOf(NoSuchBasketException.class);
 
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
+            Mockito.verify(store).findByCustomerId(defaultCustomerId());
         }
 
         @Test
         @DisplayName("non-exisitng Product")
         void nonExistingProduct() {
-            Mockito.when(repository.findByCustomerId(anyLong()))
+            Mockito.when(store.findByCustomerId(anyLong()))
                     .thenReturn(Optional.of(defaultBasket()));
-            Mockito.when(repository.save(any()))
+            Mockito.when(store.save(any()))
                     .thenReturn(defaultBasket());
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             basketService.removeFromBasket(defaultCustomerId(), anotherProductId());
 
 
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
-            Mockito.verify(repository).save(defaultBasket());
+            Mockito.verify(store).findByCustomerId(defaultCustomerId());
+            Mockito.verify(store).save(defaultBasket());
         }
     }
 
@@ -195,52 +262,65 @@ class BasketServiceTest implements WithAssertions {
         void nonExistingBasket() {
             Mockito.doNothing().when(productService).validatePresence(anyLong());
             Mockito.doNothing().when(customerService).validatePresence(anyLong());
-            Mockito.when(repository.findByCustomerId(anyLong()))
+            Mockito.when(store.findBasketIdByCustomerId(anyLong()))
                     .thenReturn(Optional.empty());
-            Mockito.when(repository.save(any()))
-                    .thenReturn(defaultBasket());
+            Mockito.when(store.save(any()))
+                    .thenReturn(defaultEmptyBasket());
+            Mockito.when(store.addItem(anyLong(), anyLong(), anyInt()))
+                    .thenReturn(new BasketItem(defaultProductId(), 1));
 
-            basketService = new BasketService(repository, customerService, productService);
-            basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
+            BasketItem result = basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1);
 
             Mockito.verify(productService).validatePresence(defaultProductId());
             Mockito.verify(customerService).validatePresence(defaultCustomerId());
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
-            Mockito.verify(repository).save(defaultNewBasket());
+            Mockito.verify(store).findBasketIdByCustomerId(defaultCustomerId());
+            Mockito.verify(store).save(defaultNewEmptyBasket());
+            Mockito.verify(store).addItem(defaultEmptyBasket().getBasketId(), defaultProductId(), 1);
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 1));
         }
 
         @Test
-        @DisplayName("empty Basket")
-        void emptyBasket() {
+        @DisplayName("Basket created concurrently")
+        void concurrentlyCreatedBasket() {
             Mockito.doNothing().when(productService).validatePresence(anyLong());
-            Mockito.when(repository.findByCustomerId(anyLong()))
-                    .thenReturn(Optional.of(defaultEmptyBasket()));
-            Mockito.when(repository.save(any()))
-                    .thenReturn(defaultBasket());
-
-            basketService = new BasketService(repository, customerService, productService);
-            basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1);
-
-            Mockito.verify(productService).validatePresence(defaultProductId());
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
-            Mockito.verify(repository).save(defaultBasket());
+            Mockito.doNothing().when(customerService).validatePresence(anyLong());
+            Mockito.when(store.findBasketIdByCustomerId(anyLong()))
+                    .thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(defaultBasket().getBasketId()));
+            Mockito.when(store.save(any()))
+                    .thenThrow(new DataIntegrityViolationException("BASKETS_CUSTOMER_ID_IDX"));
+            Mockito.when(store.addItem(anyLong(), anyLong(), anyInt()))
+                    .thenReturn(new BasketItem(defaultProductId(), 2));
+
+            basketService = new BasketService(store, customerService, productService, transactionManager);
+            BasketItem result = basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1);
+
+            Mockito.verify(store).save(defaultNewEmptyBasket());
+            Mockito.verify(store, Mockito.times(2)).findBasketIdByCustomerId(defaultCustomerId());
+            Mockito.verify(store).addItem(defaultBasket().getBasketId(), defaultProductId(), 1);
+            Mockito.verify(transactionManager).rollback(any());
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 2));
         }
 
         @Test
-        @DisplayName("non-empty Basket")
-        void nonEmptyBasket() {
+        @DisplayName("existing Basket")
+        void existingBasket() {
             Mockito.doNothing().when(productService).validatePresence(anyLong());
-            Mockito.when(repository.findByCustomerId(defaultCustomerId()))
-                    .thenReturn(Optional.of(defaultBasket()));
-            Mockito.when(repository.save(any()))
-                    .thenReturn(defaultBasketWith(defaultProductId(), 2));
+            Mockito.when(store.findBasketIdByCustomerId(anyLong()))
+                    .thenReturn(Optional.of(defaultBasket().getBasketId()));
+            Mockito.when(store.addItem(anyLong(), anyLong(), anyInt()))
+                    .thenReturn(new BasketItem(defaultProductId(), 2));
 
-            basketService = new BasketService(repository, customerService, productService);
-            basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
+            BasketItem result = basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1);
 
             Mockito.verify(productService).validatePresence(defaultProductId());
-            Mockito.verify(repository).findByCustomerId(defaultCustomerId());
-            Mockito.verify(repository).save(defaultBasketWith(defaultProductId(), 2));
+            Mockito.verify(store).findBasketIdByCustomerId(defaultCustomerId());
+            Mockito.verify(store).addItem(defaultBasket().getBasketId(), defaultProductId(), 1);
+            Mockito.verify(store, Mockito.never()).save(any());
+            Mockito.verifyNoInteractions(customerService);
+            assertThat(result).isEqualTo(new BasketItem(defaultProductId(), 2));
         }
 
         @Test
@@ -249,7 +329,7 @@ class BasketServiceTest implements WithAssertions {
             Mockito.doThrow(new NoSuchProductException(defaultProductId()))
                     .when(productService).validatePresence(anyLong());
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
 
             assertThatThrownBy(() -> basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1))
                     .isInstanceOf(NoSuchProductException.class);
@@ -264,7 +344,7 @@ class BasketServiceTest implements WithAssertions {
             Mockito.doThrow(new NoSuchCustomerException(defaultCustomerId()))
                     .when(customerService).validatePresence(anyLong());
 
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
 
             assertThatThrownBy(() -> basketService.addToBasket(defaultCustomerId(), defaultProductId(), 1))
                     .isInstanceOf(NoSuchCustomerException.class);
@@ -282,32 +362,32 @@ class BasketServiceTest implements WithAssertions {
         @DisplayName("and should get an empty list")
         void emptyDB() {
             //Given
-            Mockito.when(repository.getAllIds())
+            Mockito.when(store.getAllIds())
                     .thenReturn(List.of());
 
             //When
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             List<Long> result = basketService.getAllIds();
 
             //Then
             assertThat(result).isEmpty();
-            Mockito.verify(repository).getAllIds();
+            Mockito.verify(store).getAllIds();
         }
 
         @Test
         @DisplayName("and should get a list with two IDs")
         void nonEmptyDB() {
             //Given
-            Mockito.when(repository.getAllIds())
+            Mockito.when(store.getAllIds())
                     .thenReturn(List.of(defaultProductId(), anotherCustomerId()));
 
             //When
-            basketService = new BasketService(repository, customerService, productService);
+            basketService = new BasketService(store, customerService, productService, transactionManager);
             List<Long> result = basketService.getAllIds();
 
             //Then
             assertThat(result).containsExactlyInAnyOrder(defaultCustomerId(), anotherCustomerId());
-            Mockito.verify(repository).getAllIds();
+            Mockito.verify(store).getAllIds();
         }
     }
 }
\ No newline at end of file
@@ -5,21 +5,26 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.lager.cache.InvalidationBus;
+import org.lager.cache.InvalidationBus.Change;
 import org.lager.exception.CustomerIllegalNameException;
 import org.lager.exception.NoSuchCustomerException;
 import org.lager.model.dto.CustomerDto;
-import org.lager.repository.BasketRepository;
+import org.lager.repository.BasketStore;
 import org.lager.repository.CustomerRepository;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.lager.CustomerFixtures.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Customer Service")
@@ -28,7 +33,9 @@ class CustomerServiceTest implements WithAssertions {
     @Mock
     private CustomerRepository repository;
     @Mock
-    private BasketRepository basketRepository;
+    private BasketStore basketStore;
+    @Mock
+    private InvalidationBus invalidationBus;
 
     CustomerService customerService;
 
@@ -42,7 +49,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.save(any()))
                     .thenReturn(defaultCustomer());
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             CustomerDto customer = customerService.create(defaultCustomerName());
 
             assertThat(customer).isEqualTo(new CustomerDto(defaultCustomer()));
@@ -53,7 +60,7 @@ class CustomerServiceTest implements WithAssertions {
         @Test
         @DisplayName("a customer with null Name should throw an exception")
         void nullName() {
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
 
             assertThatThrownBy(() -> customerService.create(null))
                     .isInstanceOf(CustomerIllegalNameException.class);
@@ -62,7 +69,7 @@ class CustomerServiceTest implements WithAssertions {
         @Test
         @DisplayName("a customer with invalid Name should throw an exception")
         void invalidName() {
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
 
             assertThatThrownBy(() -> customerService.create(incorrectCustomerName()))
                     .isInstanceOf(CustomerIllegalNameException.class);
@@ -79,7 +86,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.of(defaultCustomer()));
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             CustomerDto customer = customerService.get(defaultCustomerId());
 
             assertThat(customer).isEqualTo(new CustomerDto(defaultCustomer()));
@@ -92,7 +99,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             assertThatThrownBy(()->customerService.get(defaultCustomerId()))
                     .isInstanceOf(NoSuchCustomerException.class);
 
@@ -105,12 +112,36 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             assertThatThrownBy(()->customerService.get(incorrectCustomerId()))
                     .isInstanceOf(NoSuchCustomerException.class);
 
             Mockito.verify(repository).findById(incorrectCustomerId());
         }
+
+        @Test
+        @DisplayName("the ETag of existing one")
+        void existingETag() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultCustomer()));
+
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
+            String eTag = customerService.getETag(defaultCustomerId());
+
+            assertThat(eTag).isEqualTo("0");
+            Mockito.verify(repository).findById(defaultCustomerId());
+        }
+
+        @Test
+        @DisplayName("the ETag of non-existing one")
+        void nonExistingETag() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.empty());
+
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
+            assertThatThrownBy(()->customerService.getETag(defaultCustomerId()))
+                    .isInstanceOf(NoSuchCustomerException.class);
+        }
     }
 
     @Nested
@@ -123,7 +154,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.of(defaultCustomer()));
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             customerService.validatePresence(defaultCustomerId());
 
             Mockito.verify(repository).findById(defaultCustomerId());
@@ -135,7 +166,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             assertThatThrownBy(() -> customerService.validatePresence(defaultCustomerId()))
                     .isInstanceOf(NoSuchCustomerException.class);
 
@@ -148,7 +179,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             assertThatThrownBy(() -> customerService.validatePresence(incorrectCustomerId()))
                     .isInstanceOf(NoSuchCustomerException.class);
 
@@ -156,6 +187,86 @@ class CustomerServiceTest implements WithAssertions {
         }
     }
 
+    @Nested
+    @DisplayName("keeps existing IDs in memory")
+    class IdBitmapCustomerServiceTest {
+
+        @Test
+        @DisplayName("and validates a created Customer without the DB")
+        void createdCustomer() {
+            Mockito.when(repository.save(any()))
+                    .thenReturn(defaultCustomer());
+
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
+            customerService.create(defaultCustomerName());
+            customerService.validatePresence(defaultCustomerId());
+
+            Mockito.verify(repository, Mockito.never()).findById(anyLong());
+            Mockito.verify(invalidationBus).publish("customer", Change.CREATED, defaultCustomerId());
+        }
+
+        @Test
+        @DisplayName("and lists Customers created or renamed on another instance")
+        void changedElsewhere() {
+            Mockito.when(repository.getAllIds())
+                    .thenReturn(List.of(defaultCustomerId()));
+            ArgumentCaptor<InvalidationBus.ChangeListener> changed = ArgumentCaptor.forClass(InvalidationBus.ChangeListener.class);
+
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
+            Mockito.verify(invalidationBus).subscribeChanges(anyString(), changed.capture(), any());
+            customerService.loadIds();
+            changed.getValue().changed(Change.UPDATED, defaultCustomerId());
+            changed.getValue().changed(Change.CREATED, anotherCustomerId());
+
+            assertThat(customerService.getAllIds()).containsExactly(defaultCustomerId(), anotherCustomerId());
+        }
+
+        @Test
+        @DisplayName("and remembers a Customer found in the DB")
+        void foundCustomer() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultCustomer()));
+
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
+            customerService.validatePresence(defaultCustomerId());
+            customerService.validatePresence(defaultCustomerId());
+
+            Mockito.verify(repository, Mockito.times(1)).findById(defaultCustomerId());
+        }
+
+        @Test
+        @DisplayName("and forgets bulk-deleted Customers")
+        void deletedCustomers() {
+            Mockito.when(repository.getAllIds())
+                    .thenReturn(List.of(defaultCustomerId(), anotherCustomerId()));
+
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
+            customerService.loadIds();
+            customerService.delete(List.of(defaultCustomerId()));
+
+            assertThat(customerService.getAllIds()).containsExactly(anotherCustomerId());
+            Mockito.verify(repository, Mockito.times(1)).getAllIds();
+            Mockito.verify(invalidationBus).publish("customer", Change.DELETED, List.of(defaultCustomerId()));
+        }
+
+        @Test
+        @DisplayName("and forgets a Customer deleted on another instance")
+        void deletedElsewhere() {
+            Mockito.when(repository.getAllIds())
+                    .thenReturn(List.of(defaultCustomerId(), anotherCustomerId()));
+            ArgumentCaptor<InvalidationBus.ChangeListener> changed = ArgumentCaptor.forClass(InvalidationBus.ChangeListener.class);
+
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
+            Mockito.verify(invalidationBus).subscribeChanges(anyString(), changed.capture(), any());
+            customerService.loadIds();
+            changed.getValue().changed(Change.DELETED, defaultCustomerId());
+
+            assertThatThrownBy(() -> customerService.validatePresence(defaultCustomerId()))
+                    .isInstanceOf(NoSuchCustomerException.class);
+            Mockito.verify(repository).findById(defaultCustomerId());
+        }
+    }
+
     @Nested
     @DisplayName("when deletes")
     class RemoveCustomerServiceTest {
@@ -163,24 +274,55 @@ class CustomerServiceTest implements WithAssertions {
         @Test
         @DisplayName("existing one")
         void existingID() {
-            Mockito.doNothing().when(repository).deleteById(anyLong());
+            Mockito.when(repository.deleteByCustomerId(anyLong())).thenReturn(1);
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             customerService.delete(defaultCustomerId());
 
-            Mockito.verify(repository).deleteById(defaultCustomerId());
+            Mockito.verify(basketStore).deleteByCustomerId(defaultCustomerId());
+            Mockito.verify(repository).deleteByCustomerId(defaultCustomerId());
+            Mockito.verify(invalidationBus).publish("customer", Change.DELETED, defaultCustomerId());
         }
 
 
         @Test
         @DisplayName("invalid ID")
         void invalidID() {
-            Mockito.doNothing().when(repository).deleteById(anyLong());
+            Mockito.when(repository.deleteByCustomerId(anyLong())).thenReturn(0);
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             customerService.delete(incorrectCustomerId());
 
-            Mockito.verify(repository).deleteById(incorrectCustomerId());
+            Mockito.verify(repository).deleteByCustomerId(incorrectCustomerId());
+        }
+
+        @Test
+        @DisplayName("many in chunks")
+        void manyIDs() {
+            List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+            Mockito.when(repository.deleteAllByCustomerIdIn(any())).thenAnswer(call -> call.<List<Long>>getArgument(0).size());
+
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
+            int deleted = customerService.delete(ids);
+
+            Mockito.verify(basketStore).deleteAllByCustomerIdIn(ids.subList(0, 1000));
+            Mockito.verify(basketStore).deleteAllByCustomerIdIn(ids.subList(1000, 2000));
+            Mockito.verify(basketStore).deleteAllByCustomerIdIn(ids.subList(2000, 2500));
+            Mockito.verify(repository, Mockito.times(3)).deleteAllByCustomerIdIn(any());
+            assertThat(deleted).isEqualTo(2500);
+        }
+
+        @Test
+        @DisplayName("many with duplicates")
+        void duplicatedIDs() {
+            Mockito.when(repository.deleteAllByCustomerIdIn(any())).thenReturn(2);
+
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
+            int deleted = customerService.delete(List.of(defaultCustomerId(), anotherCustomerId(), defaultCustomerId()));
+
+            Mockito.verify(basketStore).deleteAllByCustomerIdIn(List.of(defaultCustomerId(), anotherCustomerId()));
+            Mockito.verify(repository).deleteAllByCustomerIdIn(List.of(defaultCustomerId(), anotherCustomerId()));
+            assertThat(deleted).isEqualTo(2);
         }
     }
 
@@ -196,7 +338,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.save(any()))
                     .thenReturn(defaultCustomerWithName("newName"));
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             customerService.rename(defaultCustomerId(), "newName");
 
             Mockito.verify(repository).findById(defaultCustomerId());
@@ -209,7 +351,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.of(defaultCustomer()));
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             assertThatThrownBy(() -> customerService.rename(defaultCustomerId(), "new . Name"))
                     .isInstanceOf(CustomerIllegalNameException.class);
 
@@ -222,7 +364,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.findById(nonExistingCustomerId()))
                     .thenReturn(Optional.empty());
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             assertThatThrownBy(() -> customerService.rename(nonExistingCustomerId(), "newName"))
                     .isInstanceOf(NoSuchCustomerException.class);
 
@@ -235,7 +377,7 @@ class CustomerServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             assertThatThrownBy(() -> customerService.rename(incorrectCustomerId(), "newName"))
                     .isInstanceOf(NoSuchCustomerException.class);
 
@@ -255,7 +397,7 @@ class CustomerServiceTest implements WithAssertions {
                     .thenReturn(List.of());
 
             //When
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             List<Long> result = customerService.getAllIds();
 
             //Then
@@ -271,7 +413,7 @@ class CustomerServiceTest implements WithAssertions {
                     .thenReturn(List.of(defaultCustomerId(), anotherCustomerId()));
 
             //When
-            customerService = new CustomerService(repository, basketRepository);
+            customerService = new CustomerService(repository, basketStore, invalidationBus);
             List<Long> result = customerService.getAllIds();
 
             //Then
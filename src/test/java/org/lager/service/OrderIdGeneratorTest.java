@@ -0,0 +1,74 @@
+package org.lager.service;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+@DisplayName("Order ID Generator")
+class OrderIdGeneratorTest implements WithAssertions {
+
+    private static final long NOW = OrderIdGenerator.EPOCH + 1_000;
+
+    @Test
+    @DisplayName("puts timestamp, node and sequence into the ID")
+    void layout() {
+        OrderIdGenerator generator = new OrderIdGenerator(5, () -> NOW);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertThat(first >>> (OrderIdGenerator.NODE_BITS + OrderIdGenerator.SEQUENCE_BITS)).isEqualTo(1_000);
+        assertThat((first >>> OrderIdGenerator.SEQUENCE_BITS) & OrderIdGenerator.MAX_NODE_ID).isEqualTo(5);
+        assertThat(second - first).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("gives unique increasing IDs even when the sequence overflows")
+    void sequenceOverflow() {
+        OrderIdGenerator generator = new OrderIdGenerator(1, () -> NOW);
+        Set<Long> ids = new HashSet<>();
+        long last = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(last);
+            ids.add(id);
+            last = id;
+        }
+
+        assertThat(ids).hasSize(10_000);
+    }
+
+    @Test
+    @DisplayName("keeps increasing when the clock goes backwards")
+    void clockGoesBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderIdGenerator generator = new OrderIdGenerator(1, clock::get);
+
+        long first = generator.nextId();
+        clock.set(NOW - 500);
+        long second = generator.nextId();
+
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    @DisplayName("differs between nodes at the same time")
+    void differentNodes() {
+        long first = new OrderIdGenerator(1, () -> NOW).nextId();
+        long second = new OrderIdGenerator(2, () -> NOW).nextId();
+
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("throws an exception for invalid node-id")
+    void invalidNode() {
+        assertThatThrownBy(() -> new OrderIdGenerator(OrderIdGenerator.MAX_NODE_ID + 1, () -> NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.lager.cache.LookupStats;
+import org.lager.cache.OffHeapCache;
 import org.lager.exception.NoSuchOrderException;
 import org.lager.exception.OrderItemSetNotPresentException;
 import org.lager.model.dto.OrderDto;
@@ -16,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.*;
 
 import static org.lager.BasketFixtures.basketContentOf;
 import static org.lager.BasketFixtures.defaultBasket;
@@ -34,7 +37,10 @@ class OrderServiceTest implements WithAssertions {
     OrderRepository orderRepository;
     @Mock
     BasketService basketService;
+    @Mock
+    OrderIdGenerator idGenerator;
 
+    OffHeapCache cache = new OffHeapCache(4096, 64);
     OrderService orderService;
 
     @Nested
@@ -47,7 +53,7 @@ class OrderServiceTest implements WithAssertions {
             Mockito.when(orderRepository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            orderService = new OrderService(orderRepository, basketService);
+            orderService = new OrderService(orderRepository, basketService, idGenerator, cache);
             assertThatThrownBy(() -> orderService.get(defaultOrderId()))
                     .isInstanceOf(NoSuchOrderException.class);
 
@@ -60,12 +66,53 @@ class OrderServiceTest implements WithAssertions {
             Mockito.when(orderRepository.findById(anyLong()))
                     .thenReturn(Optional.of(defaultOrder()));
 
-            orderService = new OrderService(orderRepository, basketService);
+            orderService = new OrderService(orderRepository, basketService, idGenerator, cache);
             OrderDto order = orderService.get(defaultOrderId());
 
             assertThat(order).isEqualTo(new OrderDto(defaultOrder()));
             Mockito.verify(orderRepository).findById(defaultOrderId());
         }
+
+        @Test
+        @DisplayName("existing Order from the cache")
+        void cachedOrder() throws NoSuchOrderException {
+            Mockito.when(orderRepository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultOrder()));
+
+            orderService = new OrderService(orderRepository, basketService, idGenerator, cache);
+            orderService.get(defaultOrderId());
+            OrderDto order = orderService.get(defaultOrderId());
+
+            assertThat(order).isEqualTo(new OrderDto(defaultOrder()));
+            Mockito.verify(orderRepository, Mockito.times(1)).findById(defaultOrderId());
+        }
+
+        @Test
+        @DisplayName("existing Order with one DB call for concurrent readers")
+        void concurrentReaders() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            Mockito.when(orderRepository.findById(anyLong()))
+                    .thenAnswer(invocation -> {
+                        release.await(5, TimeUnit.SECONDS);
+                        return Optional.of(defaultOrder());
+                    });
+
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+
+            orderService = new OrderService(orderRepository, basketService, idGenerator, cache);
+            Future<OrderDto> first = executor.submit(() -> orderService.get(defaultOrderId()));
+            Mockito.verify(orderRepository, Mockito.timeout(5000)).findById(defaultOrderId());
+            Future<OrderDto> second = executor.submit(() -> orderService.get(defaultOrderId()));
+            for (int i = 0; i < 500 && orderService.getLookupStats().collapsed() == 0; i++)
+                Thread.sleep(10);
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(new OrderDto(defaultOrder()));
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(new OrderDto(defaultOrder()));
+            assertThat(orderService.getLookupStats()).isEqualTo(new LookupStats(1, 1));
+            Mockito.verify(orderRepository, Mockito.times(1)).findById(defaultOrderId());
+            executor.shutdown();
+        }
     }
 
     @Nested
@@ -77,25 +124,47 @@ class OrderServiceTest implements WithAssertions {
         void simplyBasket() {
             Mockito.when(basketService.getContentOfBasket(anyLong()))
                     .thenReturn(basketContentOf(defaultBasket()));
+            Mockito.when(idGenerator.nextId())
+                    .thenReturn(defaultOrderId());
             Mockito.when(orderRepository.save(any()))
                     .thenReturn(defaultOrder());
 
-            orderService = new OrderService(orderRepository, basketService);
+            orderService = new OrderService(orderRepository, basketService, idGenerator, cache);
             OrderDto order = orderService.order(defaultCustomerId());
 
             assertThat(order).isEqualTo(new OrderDto(defaultOrder()));
             Mockito.verify(basketService).getContentOfBasket(defaultCustomerId());
-            Mockito.verify(orderRepository).save(defaultNewOrder());
+            Mockito.verify(orderRepository).save(defaultOrder());
             Mockito.verify(basketService).dropBasket(defaultCustomerId());
         }
 
+        @Test
+        @DisplayName("Basket and keeps the new Order cached")
+        void cachesNewOrder() throws NoSuchOrderException {
+            Mockito.when(basketService.getContentOfBasket(anyLong()))
+                    .thenReturn(basketContentOf(defaultBasket()));
+            Mockito.when(idGenerator.nextId())
+                    .thenReturn(defaultOrderId());
+            Mockito.when(orderRepository.save(any()))
+                    .thenReturn(defaultOrder());
+
+            orderService = new OrderService(orderRepository, basketService, idGenerator, cache);
+            orderService.order(defaultCustomerId());
+            OrderDto order = orderService.get(defaultOrderId());
+
+            assertThat(order).isEqualTo(new OrderDto(defaultOrder()));
+            Mockito.verify(orderRepository, Mockito.never()).findById(anyLong());
+        }
+
         @Test
         @DisplayName("non existing / empty Basket")
         void nonExisting() {
             Mockito.when(basketService.getContentOfBasket(anyLong()))
                     .thenReturn(Map.of());
+            Mockito.when(idGenerator.nextId())
+                    .thenReturn(defaultOrderId());
 
-            orderService = new OrderService(orderRepository, basketService);
+            orderService = new OrderService(orderRepository, basketService, idGenerator, cache);
 
             assertThatThrownBy(() -> orderService.order(defaultCustomerId()))
                     .isInstanceOf(OrderItemSetNotPresentException.class);
@@ -116,7 +185,7 @@ class OrderServiceTest implements WithAssertions {
                     .thenReturn(List.of());
 
             //When
-            orderService = new OrderService(orderRepository, basketService);
+            orderService = new OrderService(orderRepository, basketService, idGenerator, cache);
             List<Long> result = orderService.getAllIds();
 
             //Then
@@ -132,7 +201,7 @@ class OrderServiceTest implements WithAssertions {
                     .thenReturn(List.of(defaultProductId(), anotherProductId()));
 
             //When
-            orderService = new OrderService(orderRepository, basketService);
+            orderService = new OrderService(orderRepository, basketService, idGenerator, cache);
             List<Long> result = orderService.getAllIds();
 
             //Then
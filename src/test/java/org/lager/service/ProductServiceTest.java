@@ -1,24 +1,40 @@
 package org.lager.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.lager.cache.BoundedCache;
+import org.lager.cache.CacheStats;
+import org.lager.cache.InvalidationBus;
+import org.lager.cache.InvalidationBus.Change;
 import org.lager.exception.NoSuchProductException;
+import org.lager.exception.PageIllegalLimitException;
 import org.lager.exception.ProductIllegalNameException;
+import org.lager.model.ProductChange;
+import org.lager.model.dto.IdPageDto;
+import org.lager.model.dto.ProductChangesDto;
 import org.lager.model.dto.ProductDto;
+import org.lager.model.dto.ProductJson;
+import org.lager.repository.ProductChangeLog;
 import org.lager.repository.ProductRepository;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
 import static org.lager.ProductFixtures.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Product Service")
@@ -26,7 +42,14 @@ class ProductServiceTest implements WithAssertions {
 
     @Mock
     private ProductRepository repository;
+    @Mock
+    private ProductChangeLog changeLog;
+    @Mock
+    private InvalidationBus invalidationBus;
 
+    BoundedCache<Long, ProductDto> cache = new BoundedCache<>(10, Duration.ofMinutes(1));
+    BoundedCache<Long, ProductJson> jsonCache = new BoundedCache<>(10, Duration.ofMinutes(1));
+    ObjectMapper objectMapper = new ObjectMapper();
     ProductService productService;
 
     @Nested
@@ -36,21 +59,21 @@ class ProductServiceTest implements WithAssertions {
         @Test
         @DisplayName("adds one Product")
         void properOne() {
-            Mockito.when(repository.save(any()))
+            Mockito.when(changeLog.save(any()))
                     .thenReturn(defaultProduct());
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             ProductDto product = productService.create(defaultProductName());
 
             assertThat(product).isEqualTo(new ProductDto(defaultProduct()));
-            Mockito.verify(repository).save(defaultNewProduct());
+            Mockito.verify(changeLog).save(defaultNewProduct());
         }
 
 
         @Test
         @DisplayName("a product with null Name should throw an exception")
         void nullName() {
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
 
             assertThatThrownBy(() -> productService.create(null))
                     .isInstanceOf(ProductIllegalNameException.class);
@@ -59,7 +82,7 @@ class ProductServiceTest implements WithAssertions {
         @Test
         @DisplayName("a product with invalid Name should throw an exception")
         void invalidName() {
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
 
             assertThatThrownBy(() -> productService.create(incorrectProductName()))
                     .isInstanceOf(ProductIllegalNameException.class);
@@ -76,7 +99,7 @@ class ProductServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.of(defaultProduct()));
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             ProductDto product = productService.get(defaultProductId());
 
             assertThat(product).isEqualTo(new ProductDto(defaultProduct()));
@@ -89,7 +112,7 @@ class ProductServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             assertThatThrownBy(() -> productService.get(defaultProductId()))
                     .isInstanceOf(NoSuchProductException.class);
 
@@ -102,7 +125,7 @@ class ProductServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             assertThatThrownBy(() -> productService.get(incorrectProductId()))
                     .isInstanceOf(NoSuchProductException.class);
 
@@ -120,7 +143,7 @@ class ProductServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.of(defaultProduct()));
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             productService.validatePresence(defaultProductId());
 
             Mockito.verify(repository).findById(defaultProductId());
@@ -132,7 +155,7 @@ class ProductServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             assertThatThrownBy(() -> productService.validatePresence(defaultProductId()))
                     .isInstanceOf(NoSuchProductException.class);
 
@@ -145,7 +168,7 @@ class ProductServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             assertThatThrownBy(() -> productService.validatePresence(incorrectProductId()))
                     .isInstanceOf(NoSuchProductException.class);
 
@@ -153,6 +176,307 @@ class ProductServiceTest implements WithAssertions {
         }
     }
 
+    @Nested
+    @DisplayName("caches")
+    class CacheProductServiceTest {
+
+        @Test
+        @DisplayName("repeated reads of one Product")
+        void repeatedReads() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultProduct()));
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            ProductDto first = productService.get(defaultProductId());
+            productService.validatePresence(defaultProductId());
+            ProductDto second = productService.get(defaultProductId());
+
+            assertThat(second).isEqualTo(first);
+            Mockito.verify(repository, Mockito.times(1)).findById(defaultProductId());
+            assertThat(productService.getCacheStats()).isEqualTo(new CacheStats(2, 1, 0, 1));
+        }
+
+        @Test
+        @DisplayName("no absent Product")
+        void absentProduct() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.empty());
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            assertThatThrownBy(() -> productService.validatePresence(nonExistingProductId()))
+                    .isInstanceOf(NoSuchProductException.class);
+            assertThatThrownBy(() -> productService.validatePresence(nonExistingProductId()))
+                    .isInstanceOf(NoSuchProductException.class);
+
+            Mockito.verify(repository, Mockito.times(2)).findById(nonExistingProductId());
+        }
+
+        @Test
+        @DisplayName("but forgets a renamed Product")
+        void invalidatesRenamed() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultProduct()))
+                    .thenReturn(Optional.of(defaultProduct()))
+                    .thenReturn(Optional.of(defaultProductWithName("newName")));
+            Mockito.when(changeLog.save(any()))
+                    .thenReturn(defaultProductWithName("newName"));
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            productService.get(defaultProductId());
+            productService.rename(defaultProductId(), "newName");
+            ProductDto result = productService.get(defaultProductId());
+
+            assertThat(result).isEqualTo(new ProductDto(defaultProductWithName("newName")));
+            Mockito.verify(invalidationBus).publish("product", Change.UPDATED, defaultProductId());
+        }
+
+        @Test
+        @DisplayName("but forgets a Product changed on another instance")
+        void invalidatesChangedElsewhere() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultProduct()))
+                    .thenReturn(Optional.of(defaultProductWithName("newName")));
+            ArgumentCaptor<InvalidationBus.ChangeListener> changed = ArgumentCaptor.forClass(InvalidationBus.ChangeListener.class);
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            Mockito.verify(invalidationBus).subscribeChanges(anyString(), changed.capture(), any());
+            productService.get(defaultProductId());
+            changed.getValue().changed(Change.UPDATED, defaultProductId());
+            ProductDto result = productService.get(defaultProductId());
+
+            assertThat(result).isEqualTo(new ProductDto(defaultProductWithName("newName")));
+            Mockito.verify(repository, Mockito.times(2)).findById(defaultProductId());
+        }
+
+        @Test
+        @DisplayName("but forgets all Products after missed changes")
+        void invalidatesAllAfterGap() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultProduct()));
+            ArgumentCaptor<Runnable> evictAll = ArgumentCaptor.forClass(Runnable.class);
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            Mockito.verify(invalidationBus).subscribeChanges(anyString(), any(), evictAll.capture());
+            productService.get(defaultProductId());
+            evictAll.getValue().run();
+            productService.get(defaultProductId());
+
+            Mockito.verify(repository, Mockito.times(2)).findById(defaultProductId());
+            Mockito.verify(repository).getAllIds();
+        }
+
+        @Test
+        @DisplayName("but forgets a deleted Product")
+        void invalidatesDeleted() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultProduct()))
+                    .thenReturn(Optional.empty());
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            productService.validatePresence(defaultProductId());
+            productService.delete(defaultProductId());
+
+            assertThatThrownBy(() -> productService.validatePresence(defaultProductId()))
+                    .isInstanceOf(NoSuchProductException.class);
+            Mockito.verify(invalidationBus).publish("product", Change.DELETED, defaultProductId());
+        }
+    }
+
+    @Nested
+    @DisplayName("lists changes")
+    class ChangesProductServiceTest {
+
+        @Test
+        @DisplayName("of changed and deleted Products since a version")
+        void changedAndDeleted() {
+            Mockito.when(changeLog.findSince(anyLong(), anyInt()))
+                    .thenReturn(List.of(
+                            new ProductChange(defaultProductId(), 4, false),
+                            new ProductChange(anotherProductId(), 5, true)));
+            Mockito.when(repository.findAllById(any()))
+                    .thenReturn(List.of(defaultProduct()));
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            ProductChangesDto result = productService.getChanges(3, 10);
+
+            assertThat(result).isEqualTo(new ProductChangesDto(
+                    List.of(new ProductDto(defaultProduct())), List.of(anotherProductId()), 5, false));
+            Mockito.verify(changeLog).findSince(3, 11);
+            Mockito.verify(repository).findAllById(List.of(defaultProductId()));
+        }
+
+        @Test
+        @DisplayName("up to the limit, reporting there are more")
+        void limited() {
+            Mockito.when(changeLog.findSince(anyLong(), anyInt()))
+                    .thenReturn(List.of(
+                            new ProductChange(defaultProductId(), 4, true),
+                            new ProductChange(anotherProductId(), 5, true)));
+            Mockito.when(repository.findAllById(any()))
+                    .thenReturn(List.of());
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            ProductChangesDto result = productService.getChanges(3, 1);
+
+            assertThat(result).isEqualTo(new ProductChangesDto(List.of(), List.of(defaultProductId()), 4, true));
+        }
+
+        @Test
+        @DisplayName("of nothing, keeping the version")
+        void nothing() {
+            Mockito.when(changeLog.findSince(anyLong(), anyInt()))
+                    .thenReturn(List.of());
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            ProductChangesDto result = productService.getChanges(7, 10);
+
+            assertThat(result).isEqualTo(new ProductChangesDto(List.of(), List.of(), 7, false));
+        }
+
+        @Test
+        @DisplayName("but throws an exception, when limit is incorrect")
+        void incorrectLimit() {
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+
+            assertThatThrownBy(() -> productService.getChanges(0, 0))
+                    .isInstanceOf(PageIllegalLimitException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("renders JSON")
+    class JsonProductServiceTest {
+
+        @Test
+        @DisplayName("of a Product once")
+        void rendersOnce() throws Exception {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultProduct()));
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            ProductJson first = productService.getJson(defaultProductId());
+            ProductJson second = productService.getJson(defaultProductId());
+
+            assertThat(objectMapper.readValue(first.body(), ProductDto.class)).isEqualTo(new ProductDto(defaultProduct()));
+            assertThat(second).isSameAs(first);
+            Mockito.verify(repository, Mockito.times(1)).findById(defaultProductId());
+        }
+
+        @Test
+        @DisplayName("of a renamed Product again")
+        void rendersRenamed() throws Exception {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultProduct()))
+                    .thenReturn(Optional.of(defaultProduct()))
+                    .thenReturn(Optional.of(defaultProductWithName("newName")));
+            Mockito.when(changeLog.save(any()))
+                    .thenReturn(defaultProductWithName("newName"));
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            productService.getJson(defaultProductId());
+            productService.rename(defaultProductId(), "newName");
+            ProductJson result = productService.getJson(defaultProductId());
+
+            assertThat(objectMapper.readValue(result.body(), ProductDto.class))
+                    .isEqualTo(new ProductDto(defaultProductWithName("newName")));
+        }
+
+        @Test
+        @DisplayName("of no deleted Product")
+        void rendersNoDeleted() {
+            Mockito.when(repository.findById(anyLong()))
+                    .thenReturn(Optional.of(defaultProduct()))
+                    .thenReturn(Optional.empty());
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            productService.getJson(defaultProductId());
+            productService.delete(defaultProductId());
+
+            assertThatThrownBy(() -> productService.getJson(defaultProductId()))
+                    .isInstanceOf(NoSuchProductException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("keeps existing IDs in memory")
+    class IdBitmapProductServiceTest {
+
+        @Test
+        @DisplayName("and validates a created Product without the DB")
+        void createdProduct() {
+            Mockito.when(changeLog.save(any()))
+                    .thenReturn(defaultProduct());
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            productService.create(defaultProductName());
+            productService.validatePresence(defaultProductId());
+
+            Mockito.verify(repository, Mockito.never()).findById(anyLong());
+            Mockito.verify(invalidationBus).publish("product", Change.CREATED, defaultProductId());
+        }
+
+        @Test
+        @DisplayName("and lists Products created or renamed on another instance")
+        void changedElsewhere() {
+            Mockito.when(repository.getAllIds())
+                    .thenReturn(List.of(defaultProductId()));
+            ArgumentCaptor<InvalidationBus.ChangeListener> changed = ArgumentCaptor.forClass(InvalidationBus.ChangeListener.class);
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            Mockito.verify(invalidationBus).subscribeChanges(anyString(), changed.capture(), any());
+            productService.loadIds();
+            changed.getValue().changed(Change.UPDATED, defaultProductId());
+            changed.getValue().changed(Change.CREATED, anotherProductId());
+
+            assertThat(productService.getAllIds()).containsExactly(defaultProductId(), anotherProductId());
+        }
+
+        @Test
+        @DisplayName("and forgets a Product deleted on another instance")
+        void deletedElsewhere() {
+            Mockito.when(repository.getAllIds())
+                    .thenReturn(List.of(defaultProductId(), anotherProductId()));
+            ArgumentCaptor<InvalidationBus.ChangeListener> changed = ArgumentCaptor.forClass(InvalidationBus.ChangeListener.class);
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            Mockito.verify(invalidationBus).subscribeChanges(anyString(), changed.capture(), any());
+            productService.loadIds();
+            changed.getValue().changed(Change.DELETED, defaultProductId());
+
+            assertThat(productService.getAllIds()).containsExactly(anotherProductId());
+        }
+
+        @Test
+        @DisplayName("and lists IDs loaded once")
+        void loadedOnce() {
+            Mockito.when(repository.getAllIds())
+                    .thenReturn(List.of(defaultProductId(), anotherProductId()));
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            productService.loadIds();
+            productService.validatePresence(anotherProductId());
+            List<Long> result = productService.getAllIds();
+
+            assertThat(result).containsExactly(defaultProductId(), anotherProductId());
+            Mockito.verify(repository, Mockito.times(1)).getAllIds();
+            Mockito.verify(repository, Mockito.never()).findById(anyLong());
+        }
+
+        @Test
+        @DisplayName("and forgets a deleted Product")
+        void deletedProduct() {
+            Mockito.when(repository.getAllIds())
+                    .thenReturn(List.of(defaultProductId()));
+
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            productService.delete(defaultProductId());
+
+            assertThat(productService.getAllIds()).isEmpty();
+            assertThatThrownBy(() -> productService.validatePresence(defaultProductId()))
+                    .isInstanceOf(NoSuchProductException.class);
+        }
+    }
+
     @Nested
     @DisplayName("when deletes")
     class RemoveProductServiceTest {
@@ -160,24 +484,24 @@ class ProductServiceTest implements WithAssertions {
         @Test
         @DisplayName("existing one")
         void existingID() {
-            Mockito.doNothing().when(repository).deleteById(anyLong());
+            Mockito.doNothing().when(changeLog).deleteById(anyLong());
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             productService.delete(defaultProductId());
 
-            Mockito.verify(repository).deleteById(defaultProductId());
+            Mockito.verify(changeLog).deleteById(defaultProductId());
         }
 
 
         @Test
         @DisplayName("invalid ID")
         void invalidID() {
-            Mockito.doNothing().when(repository).deleteById(anyLong());
+            Mockito.doNothing().when(changeLog).deleteById(anyLong());
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             productService.delete(incorrectProductId());
 
-            Mockito.verify(repository).deleteById(incorrectProductId());
+            Mockito.verify(changeLog).deleteById(incorrectProductId());
         }
     }
 
@@ -190,14 +514,14 @@ class ProductServiceTest implements WithAssertions {
         void existingID() {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.of(defaultProduct()));
-            Mockito.when(repository.save(any()))
+            Mockito.when(changeLog.save(any()))
                     .thenReturn((defaultProductWithName("newName")));
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             productService.rename(defaultProductId(), "newName");
 
             Mockito.verify(repository).findById(defaultProductId());
-            Mockito.verify(repository).save(defaultProductWithName("newName"));
+            Mockito.verify(changeLog).save(defaultProductWithName("newName"));
         }
 
         @Test
@@ -206,7 +530,7 @@ class ProductServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.of(defaultNewProduct()));
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             assertThatThrownBy(() -> productService.rename(defaultProductId(), "new . Name"))
                     .isInstanceOf(ProductIllegalNameException.class);
 
@@ -219,7 +543,7 @@ class ProductServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             assertThatThrownBy(() -> productService.rename(nonExistingProductId(), "newName"))
                     .isInstanceOf(NoSuchProductException.class);
 
@@ -232,7 +556,7 @@ class ProductServiceTest implements WithAssertions {
             Mockito.when(repository.findById(anyLong()))
                     .thenReturn(Optional.empty());
 
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             assertThatThrownBy(() -> productService.rename(incorrectProductId(), "newName"))
                     .isInstanceOf(NoSuchProductException.class);
 
@@ -252,7 +576,7 @@ class ProductServiceTest implements WithAssertions {
                     .thenReturn(List.of());
 
             //When
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             List<Long> result = productService.getAllIds();
 
             //Then
@@ -268,7 +592,7 @@ class ProductServiceTest implements WithAssertions {
                     .thenReturn(List.of(defaultProductId(), anotherProductId()));
 
             //When
-            productService = new ProductService(repository);
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
             List<Long> result = productService.getAllIds();
 
             //Then
@@ -276,4 +600,52 @@ class ProductServiceTest implements WithAssertions {
             Mockito.verify(repository).getAllIds();
         }
     }
+
+    @Nested
+    @DisplayName("get a page of IDs")
+    class GetIdsTest {
+
+        @Test
+        @DisplayName("and should get a cursor when there are more IDs")
+        void nextCursor() {
+            //Given
+            Mockito.when(repository.getIdsAfter(anyLong(), any()))
+                    .thenReturn(List.of(defaultProductId(), anotherProductId()));
+
+            //When
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            IdPageDto result = productService.getIds(0, 1);
+
+            //Then
+            assertThat(result).isEqualTo(new IdPageDto(List.of(defaultProductId()), defaultProductId()));
+            Mockito.verify(repository).getIdsAfter(0, Limit.of(2));
+        }
+
+        @Test
+        @DisplayName("and should get no cursor on the last page")
+        void lastPage() {
+            //Given
+            Mockito.when(repository.getIdsAfter(anyLong(), any()))
+                    .thenReturn(List.of(anotherProductId()));
+
+            //When
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+            IdPageDto result = productService.getIds(defaultProductId(), 10);
+
+            //Then
+            assertThat(result).isEqualTo(new IdPageDto(List.of(anotherProductId()), null));
+            Mockito.verify(repository).getIdsAfter(defaultProductId(), Limit.of(11));
+        }
+
+        @Test
+        @DisplayName("with invalid limit throws an exception")
+        void invalidLimit() {
+            productService = new ProductService(repository, changeLog, cache, jsonCache, objectMapper, invalidationBus);
+
+            assertThatThrownBy(() -> productService.getIds(0, 0))
+                    .isInstanceOf(PageIllegalLimitException.class);
+            assertThatThrownBy(() -> productService.getIds(0, IdPageDto.MAX_LIMIT + 1))
+                    .isInstanceOf(PageIllegalLimitException.class);
+        }
+    }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.lager.exception.UserExistsAlreadyException;
 import org.lager.exception.UserIllegalLoginException;
 import org.lager.exception.UserIllegalPasswordException;
+import org.lager.security.JwtTokenProvider;
+import org.lager.security.TokenRevocations;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -23,6 +25,10 @@ class UserServiceTest implements WithAssertions {
 
     @Mock
     private UserDetailsManager userManager;
+    @Mock
+    private TokenRevocations tokenRevocations;
+    @Mock
+    private JwtTokenProvider tokenProvider;
     private UserService service;
 
     private PasswordEncoder encoder = new PasswordEncoder() {
@@ -53,7 +59,7 @@ class UserServiceTest implements WithAssertions {
             Mockito.doNothing().when(userManager).createUser(any());
 
             //When
-            service = new UserService(userManager, encoder);
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
             service.createUser(login, password);
 
             //Then
@@ -69,7 +75,7 @@ class UserServiceTest implements WithAssertions {
             String password = "pass";
 
             //When
-            service = new UserService(userManager, encoder);
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
 
             assertThatThrownBy(()->service.createUser(login, password))
                     .isInstanceOf(UserIllegalLoginException.class);
@@ -85,7 +91,7 @@ class UserServiceTest implements WithAssertions {
             String password = "pass";
 
             //When
-            service = new UserService(userManager, encoder);
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
 
             assertThatThrownBy(()->service.createUser(login, password))
                     .isInstanceOf(UserIllegalLoginException.class);
@@ -101,7 +107,7 @@ class UserServiceTest implements WithAssertions {
             String password = "";
 
             //When
-            service = new UserService(userManager, encoder);
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
 
             assertThatThrownBy(()->service.createUser(login, password))
                     .isInstanceOf(UserIllegalPasswordException.class);
@@ -117,7 +123,7 @@ class UserServiceTest implements WithAssertions {
             String password = null;
 
             //When
-            service = new UserService(userManager, encoder);
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
 
             assertThatThrownBy(()->service.createUser(login, password))
                     .isInstanceOf(UserIllegalPasswordException.class);
@@ -135,7 +141,7 @@ class UserServiceTest implements WithAssertions {
                     .thenReturn(true);
 
             //When
-            service = new UserService(userManager, encoder);
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
 
             assertThatThrownBy(()->service.createUser(login, password))
                     .isInstanceOf(UserExistsAlreadyException.class);
@@ -157,11 +163,13 @@ class UserServiceTest implements WithAssertions {
             Mockito.doNothing().when(userManager).deleteUser(any());
 
             //When
-            service = new UserService(userManager, encoder);
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
             service.deleteUser(login);
 
             //Then
             Mockito.verify(userManager).deleteUser(login);
+            Mockito.verify(tokenRevocations).revoke(login);
+            Mockito.verify(tokenProvider).evict(login);
         }
 
         @Test
@@ -171,7 +179,7 @@ class UserServiceTest implements WithAssertions {
             String login = "";
 
             //When
-            service = new UserService(userManager, encoder);
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
 
             assertThatThrownBy(()->service.deleteUser(login))
                     .isInstanceOf(UserIllegalLoginException.class);
@@ -186,7 +194,7 @@ class UserServiceTest implements WithAssertions {
             String login = null;
 
             //When
-            service = new UserService(userManager, encoder);
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
 
             assertThatThrownBy(()->service.deleteUser(login))
                     .isInstanceOf(UserIllegalLoginException.class);
@@ -194,4 +202,41 @@ class UserServiceTest implements WithAssertions {
             //Then
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("revokes tokens of a user")
+    class revokeTokensTest {
+
+        @Test
+        @DisplayName("and works")
+        void properCase() throws UserIllegalLoginException {
+            //Given
+            String login = "user";
+
+            //When
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
+            service.revokeTokens(login);
+
+            //Then
+            Mockito.verify(tokenRevocations).revoke(login);
+            Mockito.verify(tokenProvider).evict(login);
+            Mockito.verifyNoInteractions(userManager);
+        }
+
+        @Test
+        @DisplayName("and throws an exception because login is invalid (blank)")
+        void userIllegalNameBlank() {
+            //Given
+            String login = "";
+
+            //When
+            service = new UserService(userManager, encoder, tokenRevocations, tokenProvider);
+
+            assertThatThrownBy(()->service.revokeTokens(login))
+                    .isInstanceOf(UserIllegalLoginException.class);
+
+            //Then
+            Mockito.verifyNoInteractions(tokenRevocations);
+        }
+    }
+}